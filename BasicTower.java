@@ -1,7 +1,4 @@
 import java.awt.Color;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
 
 /**
  * Class to represent a basic tower. These towers fire red lasers, do a decent
@@ -33,11 +30,6 @@ public class BasicTower extends Tower {
 
         laserColor = new Color(255, 0, 0);
 
-        try {
-            myImage = ImageIO.read(new File("basicTower.png"));
-        } catch (IOException e) {
-            System.out.println("ERROR: Could not read tower image");
-            System.out.println(e.getMessage());
-        }
+        myImage = ImageCache.getInstance().getImage("basicTower.png");
     }
 }
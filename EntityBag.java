@@ -0,0 +1,57 @@
+import java.util.Arrays;
+
+/**
+ * Class to hold a growable collection of game entities.
+ * Unlike a Vector the bag takes no locks, so it must only ever be used from
+ * the thread that owns it, which for the game's entities is the simulation
+ * thread. Other threads never read it directly; the renderer draws from the
+ * copies taken into each RenderSnapshot instead.
+ *
+ * @param <T> The type of entity held in the bag.
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class EntityBag<T> {
+    private Object[] items;
+    private int size;
+
+    /**
+     * Constructs a new, empty EntityBag.
+     */
+    public EntityBag() {
+        items = new Object[16];
+        size = 0;
+    }
+
+    /**
+     * Returns how many entities are in the bag.
+     *
+     * @return How many entities are in the bag.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the entity at a given index.
+     *
+     * @param index The index of the entity.
+     * @return The entity at the index.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) items[index];
+    }
+
+    /**
+     * Adds an entity to the end of the bag.
+     *
+     * @param entity The entity to add.
+     */
+    public void add(T entity) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        items[size++] = entity;
+    }
+}
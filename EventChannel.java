@@ -0,0 +1,180 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Singleton class to carry numeric events, such as score, money and damage,
+ * alongside the message queue.
+ * These events come by the dozen whenever a wave is being killed off, and
+ * all they ever carry is a single number, so instead of a Message each one is
+ * just a type and a number written into a preallocated EventRing. Sending and
+ * handling them creates no garbage at all. Anything rarer or with more
+ * structure to it still goes through the MessageQueue.
+ * Every recipient gets its own ring, and each recipient's events must only be
+ * taken out by one thread. That thread can register itself to be woken up
+ * whenever an event is sent to it, just like with the message queue.
+ * Rings are bounded, so a recipient whose events must never be lost, such as
+ * the simulation with its score, money and damage, can also register a
+ * handler to apply events straight away whenever its ring is full. Events
+ * for a recipient without one are dropped and counted instead.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class EventChannel {
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    private static final MessageType[] TYPES = MessageType.values();
+
+    private EventRing[] rings;
+    private volatile Thread[] consumers;
+    private volatile EventHandler[] overflowHandlers;
+    private AtomicLongArray droppedCounts;
+    private static EventChannel instance = new EventChannel();
+
+    private EventChannel() {
+        // Private constructor, this should never be called
+        // Clients should instead use get instance
+        int capacity = Integer.getInteger("towerdefense.eventCapacity",
+            DEFAULT_CAPACITY);
+        MessageRecipient[] recipients = MessageRecipient.values();
+        rings = new EventRing[recipients.length];
+        for (int i = 0; i < recipients.length; i++) {
+            rings[i] = new EventRing(capacity);
+        }
+        consumers = new Thread[recipients.length];
+        overflowHandlers = new EventHandler[recipients.length];
+        droppedCounts = new AtomicLongArray(recipients.length);
+    }
+
+    /**
+     * Returns the singleton instance for the EventChannel.
+     *
+     * @return Singleton instance for the event channel.
+     */
+    public static EventChannel getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the message type an event type read out of the channel stands
+     * for.
+     *
+     * @param type The event type.
+     * @return The message type.
+     */
+    public static MessageType getType(int type) {
+        return TYPES[type];
+    }
+
+    /**
+     * Sends an event. If the recipient's ring is full the event goes to the
+     * recipient's overflow handler instead, on this thread, or is dropped
+     * and counted if it has none.
+     *
+     * @param recipient Who the event is for.
+     * @param type What kind of event it is.
+     * @param value The number the event carries.
+     * @return True if the event was sent or handled, false if it was
+     * dropped.
+     */
+    public boolean send(MessageRecipient recipient, MessageType type,
+        long value) {
+        boolean sent = rings[recipient.ordinal()].offer(type.ordinal(),
+            value);
+        if (!sent) {
+            EventHandler handler = overflowHandlers[recipient.ordinal()];
+            if (handler != null) {
+                handler.handleEvent(type, value);
+                sent = true;
+            } else if (droppedCounts.incrementAndGet(recipient.ordinal())
+                == 1) {
+                System.out.println("ERROR: Event channel for " + recipient
+                    + " is full, dropping events");
+            }
+        }
+        Thread consumer = consumers[recipient.ordinal()];
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return sent;
+    }
+
+    /**
+     * Registers the thread that consumes events for a given recipient.
+     * The thread is woken up whenever an event is sent to that recipient so
+     * that it can park while it has nothing else to do.
+     *
+     * @param recipient The recipient the thread consumes events for.
+     * @param consumer The thread to wake up, or null to stop waking one.
+     */
+    public synchronized void registerConsumer(MessageRecipient recipient,
+        Thread consumer) {
+        Thread[] newConsumers = consumers.clone();
+        newConsumers[recipient.ordinal()] = consumer;
+        consumers = newConsumers;
+    }
+
+    /**
+     * Registers a handler to apply a recipient's events straight away
+     * whenever its ring is full, rather than dropping them. The handler runs
+     * on whichever thread sent the event, so it is only safe for recipients
+     * whose events all come from the thread that consumes them.
+     *
+     * @param recipient The recipient the handler handles events for.
+     * @param handler The handler, or null to drop events again.
+     */
+    public synchronized void setOverflowHandler(MessageRecipient recipient,
+        EventHandler handler) {
+        EventHandler[] newHandlers = overflowHandlers.clone();
+        newHandlers[recipient.ordinal()] = handler;
+        overflowHandlers = newHandlers;
+    }
+
+    /**
+     * Retrieves up to types.length of the oldest events for a recipient at
+     * once. The types are message type ordinals; use getType to turn them
+     * back into message types.
+     *
+     * @param recipient The recipient to retrieve events for.
+     * @param types The array to put the event types in, oldest first.
+     * @param values The array to put the event numbers in, at least as long
+     * as types.
+     * @return How many events were retrieved.
+     */
+    public int drainTo(MessageRecipient recipient, int[] types,
+        long[] values) {
+        return rings[recipient.ordinal()].drainTo(types, values);
+    }
+
+    /**
+     * Throws away every event waiting for a recipient, for when nobody is
+     * listening for them.
+     *
+     * @param recipient The recipient whose events to throw away.
+     * @return How many events were thrown away.
+     */
+    public int clear(MessageRecipient recipient) {
+        return rings[recipient.ordinal()].clear();
+    }
+
+    /**
+     * Returns roughly how many events are waiting for a recipient.
+     *
+     * @param recipient The recipient to check for.
+     * @return Roughly how many events are waiting.
+     */
+    public int size(MessageRecipient recipient) {
+        return rings[recipient.ordinal()].size();
+    }
+
+    /**
+     * Returns how many events for a recipient have been dropped because its
+     * ring was full and it had no overflow handler.
+     *
+     * @param recipient The recipient to check for.
+     * @return How many events have been dropped.
+     */
+    public long getOverflowCount(MessageRecipient recipient) {
+        return droppedCounts.get(recipient.ordinal());
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Interface for something that can handle an event straight away.
+ * The event channel hands an event to its recipient's handler when the
+ * recipient's ring is full, rather than dropping it.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public interface EventHandler {
+    /**
+     * Handles an event.
+     *
+     * @param type What kind of event it is.
+     * @param value The number the event carries.
+     */
+    void handleEvent(MessageType type, long value);
+}
@@ -0,0 +1,71 @@
+/**
+ * Class to represent a bounded, lock-free queue of numeric events for a
+ * single recipient.
+ * Works just like a MessageRing, but instead of holding messages each slot
+ * holds an event type and a number in preallocated primitive arrays, so
+ * sending and taking events never allocates or boxes anything. Any number of
+ * threads may offer events at once, but only one thread may take them out.
+ * When the ring is full, offers fail instead of waiting and are counted as
+ * overflows.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class EventRing extends SequenceRing {
+    private int[] types;
+    private long[] values;
+
+    /**
+     * Constructs a new EventRing able to hold at least the given number of
+     * events. The capacity is rounded up to a power of two.
+     *
+     * @param minimumCapacity The least number of events the ring can hold.
+     */
+    public EventRing(int minimumCapacity) {
+        super(minimumCapacity);
+        types = new int[getCapacity()];
+        values = new long[getCapacity()];
+    }
+
+    /**
+     * Adds an event to the ring if there is room for it. Safe to call from
+     * any number of threads.
+     *
+     * @param type The type of the event.
+     * @param value The number the event carries.
+     * @return True if the event was added, false if the ring was full.
+     */
+    public boolean offer(int type, long value) {
+        long position = claim();
+        if (position < 0) {
+            return false;
+        }
+        int index = getSlot(position);
+        types[index] = type;
+        values[index] = value;
+        publish(position);
+        return true;
+    }
+
+    /**
+     * Removes up to typeBatch.length of the oldest events into batch arrays.
+     * Must only be called from the consuming thread.
+     *
+     * @param typeBatch The array to drain the event types into, oldest
+     * first.
+     * @param valueBatch The array to drain the event numbers into, at least
+     * as long as typeBatch.
+     * @return How many events were drained.
+     */
+    public int drainTo(int[] typeBatch, long[] valueBatch) {
+        int count = 0;
+        int index;
+        while (count < typeBatch.length && (index = peekSlot(count)) >= 0) {
+            typeBatch[count] = types[index];
+            valueBatch[count] = values[index];
+            count++;
+        }
+        release(count);
+        return count;
+    }
+}
@@ -1,7 +1,4 @@
 import java.awt.Color;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
 
 /**
  * Class to represent a fast tower. These towers fire blue lasers, do a little
@@ -34,11 +31,6 @@ public class FastTower extends Tower {
 
         laserColor = new Color(0, 0, 255);
 
-        try {
-            myImage = ImageIO.read(new File("fastTower.png"));
-        } catch (IOException e) {
-            System.out.println("ERROR: Could not read tower image");
-            System.out.println(e.getMessage());
-        }
+        myImage = ImageCache.getInstance().getImage("fastTower.png");
     }
 }
@@ -3,12 +3,16 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /**
  * Class to hold all of the control panel components such as the score labels
@@ -18,9 +22,45 @@ import javax.swing.JPanel;
  * @version 1.0
  */
 public class GameControlPanel extends JPanel implements Runnable {
+    private static final int SCORE_LABEL = 0;
+    private static final int HEALTH_LABEL = 1;
+    private static final int MONEY_LABEL = 2;
+    private static final int WAVE_LABEL = 3;
+    private static final int MONSTERS_LABEL = 4;
+    private static final int SPEED_LABEL = 5;
+    private static final int PAUSE_LABEL = 6;
+    private static final int LABEL_COUNT = 7;
+
     private JLabel selectLevel, score, health, money, currentWave, monstersLeft;
     private JButton level1, level2, addBasicTower, addFastTower, addMegaTower,
-        spawnWave;
+        spawnWave, speed, pause;
+    private int shownTimeScale;
+
+    private Object pendingLock;
+    private ArrayList<Message<?>> pendingMessages;
+    private ArrayList<Message<?>> appliedMessages;
+    private long[] pendingValues;
+    private boolean[] pendingChanged;
+    private long[] appliedValues;
+    private boolean[] appliedChanged;
+    private AtomicBoolean updateQueued;
+    private Runnable panelUpdater;
+
+    /**
+     * Applies the control panel thread's updates on the event dispatch
+     * thread.
+     *
+     * @author Zachary Peterson
+     * @version 1.0
+     */
+    private class PanelUpdater implements Runnable {
+        /**
+         * Applies every update handed over since the last one.
+         */
+        public void run() {
+            applyPendingUpdates();
+        }
+    }
 
     /**
      * Action listener for the Basic Tower add button.
@@ -82,6 +122,57 @@ public class GameControlPanel extends JPanel implements Runnable {
         }
     }
 
+    /**
+     * Action listener for the Speed button.
+     *
+     * @author Zachary Peterson
+     * @version 1.0
+     */
+    private class SpeedListener implements ActionListener {
+        /**
+         * Queues a message for the game panel to move on to the next time
+         * scale, going from 1x to 2x to 4x to as fast as possible and back
+         * round to 1x.
+         *
+         * @param e The action event triggered for this action listener.
+         */
+        public void actionPerformed(ActionEvent e) {
+            int nextTimeScale;
+            if (shownTimeScale == GameLoop.UNCAPPED) {
+                nextTimeScale = 1;
+            } else if (shownTimeScale < 2) {
+                nextTimeScale = 2;
+            } else if (shownTimeScale < 4) {
+                nextTimeScale = 4;
+            } else {
+                nextTimeScale = GameLoop.UNCAPPED;
+            }
+            MessageQueue.getInstance().push(
+                new Message<Integer>(MessageRecipient.GAME_PANEL,
+                    MessageType.SET_TIME_SCALE, nextTimeScale));
+        }
+    }
+
+    /**
+     * Action listener for the Pause button.
+     *
+     * @author Zachary Peterson
+     * @version 1.0
+     */
+    private class PauseListener implements ActionListener {
+        /**
+         * Queues a message for the game panel to pause the game, or to carry
+         * on if it is already paused.
+         *
+         * @param e The action event triggered for this action listener.
+         */
+        public void actionPerformed(ActionEvent e) {
+            MessageQueue.getInstance().push(
+                new Message<String>(MessageRecipient.GAME_PANEL,
+                    MessageType.TOGGLE_PAUSE, "Toggle Pause"));
+        }
+    }
+
     /**
      * Action listener for the Spawn Wave button.
      *
@@ -146,6 +237,16 @@ public class GameControlPanel extends JPanel implements Runnable {
     public GameControlPanel() {
         setPreferredSize(new Dimension(150, 600));
 
+        pendingLock = new Object();
+        pendingMessages = new ArrayList<Message<?>>();
+        appliedMessages = new ArrayList<Message<?>>();
+        pendingValues = new long[LABEL_COUNT];
+        pendingChanged = new boolean[LABEL_COUNT];
+        appliedValues = new long[LABEL_COUNT];
+        appliedChanged = new boolean[LABEL_COUNT];
+        updateQueued = new AtomicBoolean(false);
+        panelUpdater = new PanelUpdater();
+
         setBorder(BorderFactory.createLineBorder(Color.black));
 
         setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
@@ -190,6 +291,17 @@ public class GameControlPanel extends JPanel implements Runnable {
         spawnWave.setAlignmentX(Component.CENTER_ALIGNMENT);
         spawnWave.addActionListener(new SpawnWaveListener());
 
+        shownTimeScale = 1;
+        speed = new JButton(getSpeedText(shownTimeScale));
+        speed.setPreferredSize(new Dimension(150, 50));
+        speed.setAlignmentX(Component.CENTER_ALIGNMENT);
+        speed.addActionListener(new SpeedListener());
+
+        pause = new JButton("Pause");
+        pause.setPreferredSize(new Dimension(150, 50));
+        pause.setAlignmentX(Component.CENTER_ALIGNMENT);
+        pause.addActionListener(new PauseListener());
+
 		// Create the panel items for selecting a level from the main menu
         selectLevel = new JLabel("Select level to play");
         selectLevel.setPreferredSize(new Dimension(150, 20));
@@ -232,7 +344,7 @@ public class GameControlPanel extends JPanel implements Runnable {
     public void setupGameControlPanel() {
         removeAll();
 
-        add(Box.createRigidArea(new Dimension(0, 50)));
+        add(Box.createRigidArea(new Dimension(0, 30)));
         add(score);
         add(Box.createRigidArea(new Dimension(0, 25)));
         add(health);
@@ -246,6 +358,10 @@ public class GameControlPanel extends JPanel implements Runnable {
         add(addMegaTower);
         add(Box.createRigidArea(new Dimension(0, 10)));
         add(spawnWave);
+        add(Box.createRigidArea(new Dimension(0, 10)));
+        add(speed);
+        add(Box.createRigidArea(new Dimension(0, 10)));
+        add(pause);
         add(Box.createRigidArea(new Dimension(0, 15)));
         add(currentWave);
         add(Box.createRigidArea(new Dimension(0, 15)));
@@ -257,77 +373,197 @@ public class GameControlPanel extends JPanel implements Runnable {
 
     /**
      * Main thread for the GameControlPanel.
-     * Handles all messages and updates control panel information accordingly.
+     * Parks until a message or event is sent to the control panel, then takes
+     * out everything waiting and hands it to the event dispatch thread. Label
+     * values are coalesced down to the newest one for each label, and however
+     * many times the thread wakes up before the event dispatch thread gets
+     * around to it, only one update is ever queued, so a busy wave costs one
+     * batch of label changes per frame rather than one per kill.
      */
     public void run() {
+        MessageQueue.getInstance().registerConsumer(
+            MessageRecipient.CONTROL_PANEL, Thread.currentThread());
+        EventChannel.getInstance().registerConsumer(
+            MessageRecipient.CONTROL_PANEL, Thread.currentThread());
+
+        Message<?>[] batch = new Message<?>[256];
+        int[] eventTypes = new int[256];
+        long[] eventValues = new long[256];
         while (true) {
-            Message currentMessage;
-            while (MessageQueue.getInstance().peek(
-                MessageRecipient.CONTROL_PANEL) != null) {
-                currentMessage = MessageQueue.getInstance().pop(
-                    MessageRecipient.CONTROL_PANEL);
-
-                if (currentMessage.getMessageType()
-                    == MessageType.UPDATE_SCORE) {
-                    score.setText("Score: " + currentMessage.getMessageData());
-                } else if (currentMessage.getMessageType()
-                    == MessageType.UPDATE_HEALTH) {
-                    health.setText("Health: "
-                        + currentMessage.getMessageData());
-                } else if (currentMessage.getMessageType()
-                    == MessageType.UPDATE_MONEY) {
-                    money.setText("Money: " + currentMessage.getMessageData());
-                } else if (currentMessage.getMessageType()
-                    == MessageType.ENABLE_SPAWN_BUTTON) {
-                    spawnWave.setEnabled(true);
-                } else if (currentMessage.getMessageType()
-                    == MessageType.DISABLE_SPAWN_BUTTON) {
-                    spawnWave.setEnabled(false);
-                } else if (currentMessage.getMessageType()
-                    == MessageType.UPDATE_CURRENT_WAVE) {
-                    currentWave.setText("Current Wave: "
-                        + currentMessage.getMessageData());
-                } else if (currentMessage.getMessageType()
-                    == MessageType.UPDATE_MONSTER_COUNT) {
-                    monstersLeft.setText("Monsters Left: "
-                        + currentMessage.getMessageData());
-                } else if (currentMessage.getMessageType()
-                    == MessageType.END_GAME) {
-                    addBasicTower.setEnabled(false);
-                    addFastTower.setEnabled(false);
-                    addMegaTower.setEnabled(false);
-                    spawnWave.setEnabled(false);
-                } else if (currentMessage.getMessageType()
-                    == MessageType.START_GAME) {
-                    addBasicTower.setEnabled(true);
-                    addFastTower.setEnabled(true);
-                    addMegaTower.setEnabled(true);
-                    spawnWave.setEnabled(true);
-                } else if (currentMessage.getMessageType()
-                    == MessageType.OPEN_MENU) {
-                    setupMenuPanel();
-                } else if (currentMessage.getMessageType()
-                    == MessageType.OPEN_GAME) {
-                    setupGameControlPanel();
-                } else {
-                    System.out.println("Unrecognised message processed in game"
-                        + " control panel");
-                    System.out.println("Message contents are as follows:");
-                    System.out.println("Message Recipient: "
-                        + currentMessage.getMessageRecipient());
-                    System.out.println("Message Type: "
-                        + currentMessage.getMessageType());
-                    System.out.println("Message Data: "
-                        + currentMessage.getMessageData());
+            boolean received = false;
+            int count;
+            while ((count = MessageQueue.getInstance().drainTo(
+                MessageRecipient.CONTROL_PANEL, batch)) > 0) {
+                synchronized (pendingLock) {
+                    for (int i = 0; i < count; i++) {
+                        pendingMessages.add(batch[i]);
+                        batch[i] = null;
+                    }
+                }
+                received = true;
+            }
+            while ((count = EventChannel.getInstance().drainTo(
+                MessageRecipient.CONTROL_PANEL, eventTypes, eventValues)) > 0) {
+                synchronized (pendingLock) {
+                    for (int i = 0; i < count; i++) {
+                        setPendingValue(EventChannel.getType(eventTypes[i]),
+                            eventValues[i]);
+                    }
+                }
+                received = true;
+            }
+
+            if (received) {
+                if (updateQueued.compareAndSet(false, true)) {
+                    SwingUtilities.invokeLater(panelUpdater);
                 }
+            } else {
+				// Nothing left to hand over, so wait for the next message
+				// or event to wake us back up
+                LockSupport.park(this);
             }
+        }
+    }
+
+    /**
+     * Notes down the newest value for a label, replacing any value that has
+     * not been shown yet. Must be called while holding pendingLock.
+     *
+     * @param type The type of the event.
+     * @param value The number the event carries.
+     */
+    private void setPendingValue(MessageType type, long value) {
+        int label;
+        if (type == MessageType.UPDATE_SCORE) {
+            label = SCORE_LABEL;
+        } else if (type == MessageType.UPDATE_HEALTH) {
+            label = HEALTH_LABEL;
+        } else if (type == MessageType.UPDATE_MONEY) {
+            label = MONEY_LABEL;
+        } else if (type == MessageType.UPDATE_CURRENT_WAVE) {
+            label = WAVE_LABEL;
+        } else if (type == MessageType.UPDATE_MONSTER_COUNT) {
+            label = MONSTERS_LABEL;
+        } else if (type == MessageType.UPDATE_TIME_SCALE) {
+            label = SPEED_LABEL;
+        } else if (type == MessageType.UPDATE_PAUSED) {
+            label = PAUSE_LABEL;
+        } else {
+            System.out.println("Unrecognised event processed in game"
+                + " control panel: " + type + " " + value);
+            return;
+        }
+        pendingValues[label] = value;
+        pendingChanged[label] = true;
+    }
+
+    /**
+     * Applies everything handed over by the control panel thread since the
+     * last update. Must only be run on the event dispatch thread.
+     */
+    private void applyPendingUpdates() {
+		// Clear the flag first, so anything handed over from here on queues
+		// another update rather than being missed
+        updateQueued.set(false);
 
-			// Sleep the thread for a while so we don't process things too quickly
-            try {
-                Thread.sleep(50);
-            } catch (Exception e) {
-                System.out.println(e.getMessage());
+        ArrayList<Message<?>> messages;
+        synchronized (pendingLock) {
+            messages = pendingMessages;
+            pendingMessages = appliedMessages;
+            appliedMessages = messages;
+            for (int i = 0; i < LABEL_COUNT; i++) {
+                appliedValues[i] = pendingValues[i];
+                appliedChanged[i] = pendingChanged[i];
+                pendingChanged[i] = false;
             }
         }
+
+        for (int i = 0; i < messages.size(); i++) {
+            handleMessage(messages.get(i));
+        }
+        messages.clear();
+
+        if (appliedChanged[SCORE_LABEL]) {
+            score.setText("Score: " + appliedValues[SCORE_LABEL]);
+        }
+        if (appliedChanged[HEALTH_LABEL]) {
+            health.setText("Health: " + appliedValues[HEALTH_LABEL]);
+        }
+        if (appliedChanged[MONEY_LABEL]) {
+            money.setText("Money: " + appliedValues[MONEY_LABEL]);
+        }
+        if (appliedChanged[WAVE_LABEL]) {
+            currentWave.setText("Current Wave: " + appliedValues[WAVE_LABEL]);
+        }
+        if (appliedChanged[MONSTERS_LABEL]) {
+            monstersLeft.setText("Monsters Left: "
+                + appliedValues[MONSTERS_LABEL]);
+        }
+        if (appliedChanged[SPEED_LABEL]) {
+            shownTimeScale = (int) appliedValues[SPEED_LABEL];
+            speed.setText(getSpeedText(shownTimeScale));
+        }
+        if (appliedChanged[PAUSE_LABEL]) {
+            pause.setText(appliedValues[PAUSE_LABEL] != 0 ? "Resume"
+                : "Pause");
+        }
+    }
+
+    /**
+     * Returns the text for the Speed button at a time scale.
+     *
+     * @param timeScale The time scale.
+     * @return The text for the Speed button.
+     */
+    private static String getSpeedText(int timeScale) {
+        if (timeScale == GameLoop.UNCAPPED) {
+            return "Speed: Max";
+        }
+        return "Speed: " + timeScale + "x";
+    }
+
+    /**
+     * Updates the control panel for a single message.
+     *
+     * @param currentMessage The message to handle.
+     */
+    private void handleMessage(Message<?> currentMessage) {
+        if (currentMessage.getMessageType()
+            == MessageType.ENABLE_SPAWN_BUTTON) {
+            spawnWave.setEnabled(true);
+        } else if (currentMessage.getMessageType()
+            == MessageType.DISABLE_SPAWN_BUTTON) {
+            spawnWave.setEnabled(false);
+        } else if (currentMessage.getMessageType()
+            == MessageType.END_GAME) {
+            addBasicTower.setEnabled(false);
+            addFastTower.setEnabled(false);
+            addMegaTower.setEnabled(false);
+            spawnWave.setEnabled(false);
+            pause.setEnabled(false);
+        } else if (currentMessage.getMessageType()
+            == MessageType.START_GAME) {
+            addBasicTower.setEnabled(true);
+            addFastTower.setEnabled(true);
+            addMegaTower.setEnabled(true);
+            spawnWave.setEnabled(true);
+            pause.setEnabled(true);
+        } else if (currentMessage.getMessageType()
+            == MessageType.OPEN_MENU) {
+            setupMenuPanel();
+        } else if (currentMessage.getMessageType()
+            == MessageType.OPEN_GAME) {
+            setupGameControlPanel();
+        } else {
+            System.out.println("Unrecognised message processed in game"
+                + " control panel");
+            System.out.println("Message contents are as follows:");
+            System.out.println("Message Recipient: "
+                + currentMessage.getMessageRecipient());
+            System.out.println("Message Type: "
+                + currentMessage.getMessageType());
+            System.out.println("Message Data: "
+                + currentMessage.getMessageData());
+        }
     }
 }
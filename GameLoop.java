@@ -0,0 +1,143 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class to drive the game at a fixed simulation tick rate.
+ * Real elapsed time is collected into an accumulator and spent in fixed size
+ * ticks, so every update sees the same time differential no matter how fast
+ * the machine is. After a stall the loop catches up with several ticks, but
+ * never more than a set number per frame. When there is nothing to simulate,
+ * such as on the menu, after dying or while the player has paused the game,
+ * the loop thread parks until a message arrives for the game instead of
+ * spinning.
+ * <p>
+ * The simulation's time scale speeds the game up by running that many ticks
+ * for every tick's worth of real time, drawing only once per batch. Ticks are
+ * always the same length, so a sped up game plays out exactly like one at
+ * normal speed. An uncapped time scale runs ticks back to back as fast as the
+ * machine allows and draws nothing until it is slowed back down.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class GameLoop implements Runnable {
+    public static final int DEFAULT_TICK_RATE = 60;
+    public static final int DEFAULT_MAX_TICKS_PER_FRAME = 5;
+    public static final int UNCAPPED = 0;
+
+    private GameSimulation simulation;
+    private GamePanel panel;
+    private int maxTicksPerFrame;
+    private long nanosPerTick;
+    private double tickLength;
+
+    /**
+     * Constructs a new GameLoop for the given game with the default tick rate.
+     *
+     * @param simulation The simulation to update.
+     * @param panel The game panel to repaint, or null to not render at all.
+     */
+    public GameLoop(GameSimulation simulation, GamePanel panel) {
+        this(simulation, panel, DEFAULT_TICK_RATE,
+            DEFAULT_MAX_TICKS_PER_FRAME);
+    }
+
+    /**
+     * Constructs a new GameLoop for the given game.
+     *
+     * @param simulation The simulation to update.
+     * @param panel The game panel to repaint, or null to not render at all.
+     * @param tickRate How many simulation ticks to run per second.
+     * @param maxTicksPerFrame The most ticks to run to catch up after a stall.
+     */
+    public GameLoop(GameSimulation simulation, GamePanel panel, int tickRate,
+        int maxTicksPerFrame) {
+        if (tickRate <= 0 || maxTicksPerFrame <= 0) {
+            throw new IllegalArgumentException("Tick rate and max ticks per"
+                + " frame must be positive");
+        }
+        this.simulation = simulation;
+        this.panel = panel;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+        this.nanosPerTick = 1000000000L / tickRate;
+        this.tickLength = 1.0 / tickRate;
+    }
+
+    /**
+     * Runs the game loop.
+     * Called when the game thread is started and never returns.
+     */
+    public void run() {
+        MessageQueue.getInstance().registerConsumer(
+            MessageRecipient.GAME_PANEL, Thread.currentThread());
+
+        long previousTime = System.nanoTime();
+        long accumulator = 0;
+
+        while (true) {
+			// Nothing to simulate, so handle any waiting messages and then
+			// park until another message, such as an unpause, wakes us back
+			// up
+            if (simulation.isPaused() || simulation.isIdle()) {
+                simulation.processMessages();
+                repaint();
+                if (simulation.isPaused() || simulation.isIdle()) {
+                    LockSupport.park(this);
+                }
+                previousTime = System.nanoTime();
+                accumulator = 0;
+                continue;
+            }
+
+			// Uncapped, so run the next tick straight away without drawing
+			// anything, and start timing afresh once we are slowed down
+            int timeScale = simulation.getTimeScale();
+            if (timeScale == UNCAPPED) {
+                simulation.update(tickLength);
+                previousTime = System.nanoTime();
+                accumulator = 0;
+                continue;
+            }
+
+			// Sped up time counts for that many ticks' worth of real time
+            long currentTime = System.nanoTime();
+            accumulator += (currentTime - previousTime) * timeScale;
+            previousTime = currentTime;
+
+			// Spend the elapsed time in fixed ticks, giving up on whatever
+			// is left over if we fell too far behind to ever catch up
+            int ticks = 0;
+            int maxTicks = maxTicksPerFrame * timeScale;
+            while (accumulator >= nanosPerTick && ticks < maxTicks) {
+                simulation.update(tickLength);
+                accumulator -= nanosPerTick;
+                ticks++;
+            }
+            if (accumulator >= nanosPerTick) {
+                accumulator %= nanosPerTick;
+            }
+
+            if (ticks > 0) {
+                repaint();
+            }
+
+			// Sleep until the next frame's worth of ticks is due, so that a
+			// sped up game still only draws once per tick of real time
+            long sleepTime = (nanosPerTick * timeScale - accumulator)
+                / timeScale;
+            if (sleepTime > 0) {
+                LockSupport.parkNanos(this, sleepTime);
+            }
+        }
+    }
+
+    /**
+     * Publishes a snapshot of the simulation and asks the game panel to draw
+     * it, if there is one.
+     */
+    private void repaint() {
+        if (panel != null) {
+            simulation.publishSnapshot();
+            panel.frameReady();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Class to keep live metrics on where each tick's time goes.
+ * The simulation times each phase of every tick into its own latency
+ * histogram and notes how many entities it has at the end of the tick, and the
+ * renderer times every frame it draws. Everything is read through the
+ * GameMetricsMXBean interface, so once registered the metrics can be watched
+ * from JConsole or VisualVM under towerdefense:type=GameMetrics.
+ * Timing a phase costs one System.nanoTime() call and one bucket increment,
+ * so the metrics are always on.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class GameMetrics implements GameMetricsMXBean {
+    public static final String OBJECT_NAME = "towerdefense:type=GameMetrics";
+
+    public static final int MESSAGES = 0;
+    public static final int SPAWNING = 1;
+    public static final int TARGETING = 2;
+    public static final int MOVEMENT = 3;
+    public static final int REMOVAL = 4;
+    private static final int PHASE_COUNT = 5;
+
+    private static final long RATE_INTERVAL = 1000000000L;
+
+    private LatencyHistogram tickLatency;
+    private LatencyHistogram[] phaseLatency;
+    private LatencyHistogram renderLatency;
+
+    private volatile long tickCount;
+    private volatile int monsterCount;
+    private volatile int towerCount;
+    private volatile RenderLoop renderLoop;
+
+    private long rateStartTime;
+    private long rateStartTicks;
+    private double ticksPerSecond;
+
+    /**
+     * Constructs a new GameMetrics with nothing recorded.
+     */
+    public GameMetrics() {
+        tickLatency = new LatencyHistogram();
+        phaseLatency = new LatencyHistogram[PHASE_COUNT];
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            phaseLatency[i] = new LatencyHistogram();
+        }
+        renderLatency = new LatencyHistogram();
+        rateStartTime = System.nanoTime();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, so that JMX
+     * clients can see them.
+     *
+     * @return Whether the metrics were registered.
+     */
+    public boolean register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException e) {
+            System.out.println("ERROR: Could not register game metrics");
+            System.out.println(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Sets the render loop whose frame counts are reported.
+     *
+     * @param renderLoop The render loop, or null if there is none.
+     */
+    public void setRenderLoop(RenderLoop renderLoop) {
+        this.renderLoop = renderLoop;
+    }
+
+    /**
+     * Records how long a phase of a tick took. Must only be called from the
+     * thread running the simulation.
+     *
+     * @param phase The phase, one of MESSAGES, SPAWNING, TARGETING, MOVEMENT
+     * and REMOVAL.
+     * @param nanos How long it took, in nanoseconds.
+     */
+    public void recordPhase(int phase, long nanos) {
+        phaseLatency[phase].record(nanos);
+    }
+
+    /**
+     * Records a finished tick. Must only be called from the thread running
+     * the simulation.
+     *
+     * @param nanos How long the whole tick took, in nanoseconds.
+     * @param monsters How many monsters are alive after the tick.
+     * @param towers How many towers there are after the tick.
+     */
+    public void recordTick(long nanos, int monsters, int towers) {
+        tickLatency.record(nanos);
+        monsterCount = monsters;
+        towerCount = towers;
+        tickCount = tickCount + 1;
+    }
+
+    /**
+     * Records how long drawing a frame took. Must only be called from the
+     * thread doing the drawing.
+     *
+     * @param nanos How long it took, in nanoseconds.
+     */
+    public void recordRender(long nanos) {
+        renderLatency.record(nanos);
+    }
+
+    /**
+     * Returns how many simulation ticks have been run.
+     *
+     * @return How many simulation ticks have been run.
+     */
+    @Override
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Returns how many simulation ticks were run per second, measured over
+     * roughly the last second.
+     *
+     * @return How many simulation ticks were run per second.
+     */
+    @Override
+    public synchronized double getTicksPerSecond() {
+		// Only start a new measurement once the last one has run for a
+		// while, so that clients polling quickly still get a steady number
+        long now = System.nanoTime();
+        long ticks = tickCount;
+        if (now - rateStartTime >= RATE_INTERVAL || ticksPerSecond == 0) {
+            ticksPerSecond = (ticks - rateStartTicks) * 1000000000.0
+                / Math.max(1, now - rateStartTime);
+            rateStartTime = now;
+            rateStartTicks = ticks;
+        }
+        return ticksPerSecond;
+    }
+
+    /**
+     * Returns how many monsters were alive at the end of the last tick.
+     *
+     * @return How many monsters are alive.
+     */
+    @Override
+    public int getMonsterCount() {
+        return monsterCount;
+    }
+
+    /**
+     * Returns how many towers there were at the end of the last tick.
+     *
+     * @return How many towers there are.
+     */
+    @Override
+    public int getTowerCount() {
+        return towerCount;
+    }
+
+    /**
+     * Returns how many messages are waiting for the simulation.
+     *
+     * @return How many messages are waiting for the simulation.
+     */
+    @Override
+    public int getGameQueueDepth() {
+        return MessageQueue.getInstance().size(MessageRecipient.GAME_PANEL);
+    }
+
+    /**
+     * Returns how many messages are waiting for the control panel.
+     *
+     * @return How many messages are waiting for the control panel.
+     */
+    @Override
+    public int getControlPanelQueueDepth() {
+        return MessageQueue.getInstance().size(
+            MessageRecipient.CONTROL_PANEL);
+    }
+
+    /**
+     * Returns how many messages and events have been dropped because a queue
+     * was full.
+     *
+     * @return How many messages and events have been dropped.
+     */
+    @Override
+    public long getDroppedMessages() {
+        long dropped = 0;
+        for (MessageRecipient recipient : MessageRecipient.values()) {
+            dropped += MessageQueue.getInstance().getOverflowCount(recipient);
+            dropped += EventChannel.getInstance().getOverflowCount(recipient);
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns how many frames the render loop has drawn.
+     *
+     * @return How many frames have been drawn, or 0 without a render loop.
+     */
+    @Override
+    public long getFramesRendered() {
+        RenderLoop loop = renderLoop;
+        return loop != null ? loop.getFramesRendered() : 0;
+    }
+
+    /**
+     * Returns how many frames the render loop has skipped for running late.
+     *
+     * @return How many frames have been skipped, or 0 without a render loop.
+     */
+    @Override
+    public long getFramesDropped() {
+        RenderLoop loop = renderLoop;
+        return loop != null ? loop.getFramesDropped() : 0;
+    }
+
+    /**
+     * Returns how long whole ticks take.
+     *
+     * @return How long whole ticks take.
+     */
+    @Override
+    public LatencySummary getTickLatency() {
+        return new LatencySummary(tickLatency);
+    }
+
+    /**
+     * Returns how long handling the messages at the start of a tick takes.
+     *
+     * @return How long handling messages takes.
+     */
+    @Override
+    public LatencySummary getMessageLatency() {
+        return new LatencySummary(phaseLatency[MESSAGES]);
+    }
+
+    /**
+     * Returns how long spawning the wave's monsters takes.
+     *
+     * @return How long spawning takes.
+     */
+    @Override
+    public LatencySummary getSpawnLatency() {
+        return new LatencySummary(phaseLatency[SPAWNING]);
+    }
+
+    /**
+     * Returns how long rebuilding the monster grid and running the towers
+     * takes.
+     *
+     * @return How long targeting takes.
+     */
+    @Override
+    public LatencySummary getTargetingLatency() {
+        return new LatencySummary(phaseLatency[TARGETING]);
+    }
+
+    /**
+     * Returns how long moving the monsters takes.
+     *
+     * @return How long moving the monsters takes.
+     */
+    @Override
+    public LatencySummary getMovementLatency() {
+        return new LatencySummary(phaseLatency[MOVEMENT]);
+    }
+
+    /**
+     * Returns how long removing dead monsters takes.
+     *
+     * @return How long removing dead monsters takes.
+     */
+    @Override
+    public LatencySummary getRemovalLatency() {
+        return new LatencySummary(phaseLatency[REMOVAL]);
+    }
+
+    /**
+     * Returns how long drawing a frame takes.
+     *
+     * @return How long drawing a frame takes.
+     */
+    @Override
+    public LatencySummary getRenderLatency() {
+        return new LatencySummary(renderLatency);
+    }
+
+    /**
+     * Starts every latency over from now.
+     */
+    @Override
+    public void resetLatencies() {
+        tickLatency.reset();
+        for (LatencyHistogram histogram : phaseLatency) {
+            histogram.reset();
+        }
+        renderLatency.reset();
+    }
+}
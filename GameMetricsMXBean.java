@@ -0,0 +1,130 @@
+/**
+ * Management interface for the game's live metrics, so they can be watched
+ * from JConsole or VisualVM while the game runs. Latencies are given per phase
+ * of a tick, since the last time they were reset.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public interface GameMetricsMXBean {
+
+    /**
+     * Returns how many simulation ticks have been run.
+     *
+     * @return How many simulation ticks have been run.
+     */
+    long getTickCount();
+
+    /**
+     * Returns how many simulation ticks were run per second, measured over
+     * roughly the last second.
+     *
+     * @return How many simulation ticks were run per second.
+     */
+    double getTicksPerSecond();
+
+    /**
+     * Returns how many monsters were alive at the end of the last tick.
+     *
+     * @return How many monsters are alive.
+     */
+    int getMonsterCount();
+
+    /**
+     * Returns how many towers there were at the end of the last tick.
+     *
+     * @return How many towers there are.
+     */
+    int getTowerCount();
+
+    /**
+     * Returns how many messages are waiting for the simulation.
+     *
+     * @return How many messages are waiting for the simulation.
+     */
+    int getGameQueueDepth();
+
+    /**
+     * Returns how many messages are waiting for the control panel.
+     *
+     * @return How many messages are waiting for the control panel.
+     */
+    int getControlPanelQueueDepth();
+
+    /**
+     * Returns how many messages and events have been dropped because a queue
+     * was full.
+     *
+     * @return How many messages and events have been dropped.
+     */
+    long getDroppedMessages();
+
+    /**
+     * Returns how many frames the render loop has drawn.
+     *
+     * @return How many frames have been drawn, or 0 without a render loop.
+     */
+    long getFramesRendered();
+
+    /**
+     * Returns how many frames the render loop has skipped for running late.
+     *
+     * @return How many frames have been skipped, or 0 without a render loop.
+     */
+    long getFramesDropped();
+
+    /**
+     * Returns how long whole ticks take.
+     *
+     * @return How long whole ticks take.
+     */
+    LatencySummary getTickLatency();
+
+    /**
+     * Returns how long handling the messages at the start of a tick takes.
+     *
+     * @return How long handling messages takes.
+     */
+    LatencySummary getMessageLatency();
+
+    /**
+     * Returns how long spawning the wave's monsters takes.
+     *
+     * @return How long spawning takes.
+     */
+    LatencySummary getSpawnLatency();
+
+    /**
+     * Returns how long rebuilding the monster grid and running the towers
+     * takes.
+     *
+     * @return How long targeting takes.
+     */
+    LatencySummary getTargetingLatency();
+
+    /**
+     * Returns how long moving the monsters takes.
+     *
+     * @return How long moving the monsters takes.
+     */
+    LatencySummary getMovementLatency();
+
+    /**
+     * Returns how long removing dead monsters takes.
+     *
+     * @return How long removing dead monsters takes.
+     */
+    LatencySummary getRemovalLatency();
+
+    /**
+     * Returns how long drawing a frame takes.
+     *
+     * @return How long drawing a frame takes.
+     */
+    LatencySummary getRenderLatency();
+
+    /**
+     * Starts every latency over from now.
+     */
+    void resetLatencies();
+}
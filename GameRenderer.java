@@ -0,0 +1,271 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Graphics;
+import java.awt.MouseInfo;
+import java.awt.Point;
+import java.awt.PointerInfo;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/**
+ * Class to draw a frame of the game from a render snapshot.
+ * The renderer only ever reads the snapshot it is given, plus the tower images
+ * and templates of the simulation, which never change, so it can draw on any
+ * thread while the simulation keeps running.
+ * Most of a frame never changes from one frame to the next, so it is drawn
+ * into cached layers instead: the level layer holds the background and path
+ * and is only redrawn when the level changes, and the tower layer holds the
+ * level layer plus every tower and its range and is only redrawn when a tower
+ * is placed. A frame is then one copy of the tower layer with the lasers, kill
+ * counts and monsters drawn on top.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class GameRenderer {
+    private static final Color RANGE_COLOR = new Color(255, 255, 255, 40);
+    private static final Color BLOCKED_RANGE_COLOR = new Color(255, 0, 0, 40);
+    private static final BasicStroke LASER_STROKE = new BasicStroke(3);
+    private static final Font DEATH_FONT = new Font("Arial", Font.BOLD, 46);
+
+    private GameSimulation simulation;
+
+    private BufferedImage levelLayer;
+    private BufferedImage levelLayerBackground;
+    private BufferedImage levelLayerPath;
+    private BufferedImage towerLayer;
+    private int towerLayerVersion;
+    private boolean towerLayerStale;
+
+    private HashMap<Color, Color[]> laserShades;
+    private String[] killNumbers;
+
+    /**
+     * Constructs a new GameRenderer for the given simulation.
+     *
+     * @param simulation The simulation to get tower images and templates
+     * from.
+     */
+    public GameRenderer(GameSimulation simulation) {
+        this.simulation = simulation;
+        this.towerLayerStale = true;
+        this.laserShades = new HashMap<Color, Color[]>();
+        this.killNumbers = new String[0];
+    }
+
+    /**
+     * Returns where the mouse is relative to a component.
+     *
+     * @param component The component the game is drawn on.
+     * @return Where the mouse is, or null if it cannot be found.
+     */
+    public static Point getMouseLocation(Component component) {
+        PointerInfo pointer = MouseInfo.getPointerInfo();
+        if (pointer == null || !component.isShowing()) {
+            return null;
+        }
+        Point mouseLocation = pointer.getLocation();
+        Point componentLocation = component.getLocationOnScreen();
+        return new Point(mouseLocation.x - componentLocation.x,
+            mouseLocation.y - componentLocation.y);
+    }
+
+    /**
+     * Draws a whole frame.
+     *
+     * @param g The Graphics to draw with.
+     * @param snapshot The snapshot to draw.
+     * @param mouse Where the mouse is, relative to the game area, or null if
+     * it is not over it.
+     */
+    public void render(Graphics g, RenderSnapshot snapshot, Point mouse) {
+        long renderStart = System.nanoTime();
+        BufferedImage layer = getTowerLayer(snapshot);
+        if (layer != null) {
+            g.drawImage(layer, 0, 0, null);
+        } else {
+            g.drawImage(snapshot.getPathImage(), 0, 0, null);
+        }
+
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+            RenderingHints.VALUE_ANTIALIAS_ON);
+        for (int i = 0; i < snapshot.getTowerCount(); i++) {
+            renderTowerEffects(g2, snapshot, i);
+        }
+
+        for (int i = 0; i < snapshot.getMonsterCount(); i++) {
+            g.drawImage(snapshot.getMonsterImage(i), snapshot.getMonsterX(i),
+                snapshot.getMonsterY(i), null);
+        }
+
+        if (snapshot.isInPlaceMode() && mouse != null) {
+            renderTowerPlacer(g, snapshot, mouse);
+        }
+        if (snapshot.isDead()) {
+            Font oldFont = g.getFont();
+            g.setFont(DEATH_FONT);
+            String line1 = "You have died!";
+            int line1Length
+                = (int) g.getFontMetrics().getStringBounds(line1, g).getWidth();
+            String line2 = "Click to go to menu";
+            int line2Length
+                = (int) g.getFontMetrics().getStringBounds(line2, g).getWidth();
+            g.drawString(line1, 305 - line1Length / 2, 280);
+            g.drawString(line2, 305 - line2Length / 2, 320);
+            g.setFont(oldFont);
+        }
+        simulation.getMetrics().recordRender(System.nanoTime() - renderStart);
+    }
+
+    /**
+     * Returns the tower layer for a snapshot, redrawing it and the level
+     * layer underneath it if they are out of date.
+     *
+     * @param snapshot The snapshot being drawn.
+     * @return The tower layer, or null if there is no level to draw.
+     */
+    private BufferedImage getTowerLayer(RenderSnapshot snapshot) {
+        BufferedImage background = snapshot.getBackgroundImage();
+        BufferedImage path = snapshot.getPathImage();
+        if (background == null) {
+            return null;
+        }
+
+        if (levelLayer == null || background != levelLayerBackground
+            || path != levelLayerPath) {
+            levelLayer = ImageCache.createCompatibleImage(
+                background.getWidth(), background.getHeight(),
+                Transparency.OPAQUE);
+            Graphics g = levelLayer.getGraphics();
+            g.drawImage(background, 0, 0, null);
+            g.drawImage(path, 0, 0, null);
+            g.dispose();
+            levelLayerBackground = background;
+            levelLayerPath = path;
+            towerLayer = ImageCache.createCompatibleImage(
+                background.getWidth(), background.getHeight(),
+                Transparency.OPAQUE);
+            towerLayerStale = true;
+        }
+
+        if (towerLayerStale
+            || towerLayerVersion != snapshot.getTowerLayoutVersion()) {
+            Graphics2D g2 = (Graphics2D) towerLayer.getGraphics();
+            g2.drawImage(levelLayer, 0, 0, null);
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+            for (int i = 0; i < snapshot.getTowerCount(); i++) {
+                int x = snapshot.getTowerX(i);
+                int y = snapshot.getTowerY(i);
+                int range = snapshot.getTowerRange(i);
+                BufferedImage image = snapshot.getTowerImage(i);
+                g2.setColor(RANGE_COLOR);
+                g2.fillOval(x - range + image.getWidth() / 2,
+                    y - range + image.getHeight() / 2, range * 2, range * 2);
+                g2.drawImage(image, x, y, null);
+            }
+            g2.dispose();
+            towerLayerVersion = snapshot.getTowerLayoutVersion();
+            towerLayerStale = false;
+        }
+        return towerLayer;
+    }
+
+    /**
+     * Draws the parts of a tower that change from frame to frame, which are
+     * the kill count and the laser.
+     *
+     * @param g2 The Graphics to draw with.
+     * @param snapshot The snapshot to draw from.
+     * @param i The index of the tower in the snapshot.
+     */
+    private void renderTowerEffects(Graphics2D g2, RenderSnapshot snapshot,
+        int i) {
+        int x = snapshot.getTowerX(i);
+        int y = snapshot.getTowerY(i);
+
+        g2.drawString(getKillNumber(snapshot.getTowerKills(i)), x, y);
+        int laserAlpha = snapshot.getLaserAlpha(i);
+        if (laserAlpha >= 0) {
+            BufferedImage image = snapshot.getTowerImage(i);
+            Color oldColor = g2.getColor();
+            g2.setStroke(LASER_STROKE);
+            g2.setColor(getLaserShade(snapshot.getLaserColor(i), laserAlpha));
+            g2.drawLine(x + image.getWidth() / 2, y + image.getHeight() / 2,
+                snapshot.getLaserTargetX(i), snapshot.getLaserTargetY(i));
+            g2.setColor(oldColor);
+        }
+    }
+
+    /**
+     * Returns a laser color with a given alpha, making each shade only once.
+     *
+     * @param laserColor The color of the laser.
+     * @param alpha The alpha to draw the laser with, from 0 to 255.
+     * @return The laser color with the given alpha.
+     */
+    private Color getLaserShade(Color laserColor, int alpha) {
+        Color[] shades = laserShades.get(laserColor);
+        if (shades == null) {
+            shades = new Color[256];
+            laserShades.put(laserColor, shades);
+        }
+        if (shades[alpha] == null) {
+            shades[alpha] = new Color(laserColor.getRed(),
+                laserColor.getGreen(), laserColor.getBlue(), alpha);
+        }
+        return shades[alpha];
+    }
+
+    /**
+     * Returns the text for a kill count, making each one only once.
+     *
+     * @param kills The kill count.
+     * @return The kill count as text.
+     */
+    private String getKillNumber(int kills) {
+        if (kills >= killNumbers.length) {
+            String[] grown = new String[Math.max(kills + 1,
+                killNumbers.length * 2)];
+            System.arraycopy(killNumbers, 0, grown, 0, killNumbers.length);
+            killNumbers = grown;
+        }
+        if (killNumbers[kills] == null) {
+            killNumbers[kills] = Integer.toString(kills);
+        }
+        return killNumbers[kills];
+    }
+
+    /**
+     * Draws the tower being placed under the mouse, with its range tinted red
+     * if it cannot be placed there.
+     *
+     * @param g The Graphics to draw with.
+     * @param snapshot The snapshot to draw from.
+     * @param mouse Where the mouse is, relative to the game area.
+     */
+    private void renderTowerPlacer(Graphics g, RenderSnapshot snapshot,
+        Point mouse) {
+        TowerType towerToPlace = snapshot.getTowerToPlace();
+        BufferedImage towerPlacer = simulation.getTowerImage(towerToPlace);
+        int range = simulation.getTowerTemplate(towerToPlace).getRange();
+
+        Color oldColor = g.getColor();
+        if (!snapshot.canPlaceTower(simulation.getTowerMask(towerToPlace),
+            mouse)) {
+            g.setColor(BLOCKED_RANGE_COLOR);
+        } else {
+            g.setColor(RANGE_COLOR);
+        }
+        g.fillOval(mouse.x - range, mouse.y - range, range * 2, range * 2);
+        g.setColor(oldColor);
+        g.drawImage(towerPlacer, mouse.x - towerPlacer.getWidth() / 2,
+            mouse.y - towerPlacer.getHeight() / 2, null);
+    }
+}
@@ -0,0 +1,786 @@
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+
+/**
+ * Class to hold all of the game state and update logic.
+ * The simulation owns the towers, monsters, waves and the player's economy and
+ * handles every message sent to the game. It never touches Swing, so it can be
+ * run without a display; the GamePanel simply renders whatever it holds.
+ * The thread running the simulation owns all of its entities, and is the only
+ * thread that adds or removes them.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class GameSimulation {
+    private MonsterStore myMonsters;
+    private EntityBag<Tower> myTowers;
+    private MonsterGrid monsterGrid;
+    private TowerPhase towerPhase;
+    private SnapshotExchange snapshots;
+    private int towerLayoutVersion;
+    private volatile long tickCount;
+    private volatile int timeScale;
+    private volatile boolean paused;
+    private ReplayRecorder recorder;
+    private GameMetrics metrics;
+    private int[] eventTypes;
+    private long[] eventValues;
+    private boolean healthChanged, scoreChanged, moneyChanged;
+    private int score, health, money;
+
+    private boolean isInPlaceMode;
+    private TowerType towerToPlace;
+
+    private BufferedImage backgroundImage;
+    private BufferedImage pathImage;
+    private OpacityMask pathMask;
+
+    private BufferedImage basicTowerPlacer;
+    private BufferedImage fastTowerPlacer;
+    private BufferedImage megaTowerPlacer;
+    private OpacityMask basicTowerMask;
+    private OpacityMask fastTowerMask;
+    private OpacityMask megaTowerMask;
+
+    private int currentWave;
+    private double simulationTime;
+    private SpawnScheduler spawnScheduler;
+    private Monster waveMonster;
+
+    private int monstersToKill;
+
+    private boolean dead;
+    private int currentLevel;
+
+    private BasicTower basic;
+    private FastTower fast;
+    private MegaTower mega;
+
+    /**
+     * Applies the simulation's events straight away when there is no room
+     * left for them in the event channel. Only the simulation thread sends
+     * the simulation events, so this always runs on the simulation thread,
+     * and since every event is applied before the totals are next checked,
+     * the game plays out the same either way.
+     *
+     * @author Zachary Peterson
+     * @version 1.0
+     */
+    private class OverflowHandler implements EventHandler {
+        /**
+         * Applies an event that did not fit in the event channel.
+         *
+         * @param type What kind of event it is.
+         * @param value The number the event carries.
+         */
+        public void handleEvent(MessageType type, long value) {
+            applyEvent(type, value);
+        }
+    }
+
+    /**
+     * Constructs the game simulation and gets the tower images used for
+     * placement checks.
+     */
+    public GameSimulation() {
+        basicTowerPlacer = ImageCache.getInstance().getImage("basicTower.png");
+        fastTowerPlacer = ImageCache.getInstance().getImage("fastTower.png");
+        megaTowerPlacer = ImageCache.getInstance().getImage("megaTower.png");
+        basicTowerMask = OpacityMask.getMask(basicTowerPlacer);
+        fastTowerMask = OpacityMask.getMask(fastTowerPlacer);
+        megaTowerMask = OpacityMask.getMask(megaTowerPlacer);
+
+        towerPhase = new TowerPhase();
+        monsterGrid = new MonsterGrid(600, 600, 50);
+        snapshots = new SnapshotExchange();
+        metrics = new GameMetrics();
+        spawnScheduler = new SpawnScheduler();
+        eventTypes = new int[256];
+        eventValues = new long[256];
+        EventChannel.getInstance().setOverflowHandler(
+            MessageRecipient.GAME_PANEL, new OverflowHandler());
+
+        basic = new BasicTower(0, 0);
+        fast = new FastTower(0, 0);
+        mega = new MegaTower(0, 0);
+
+        timeScale = 1;
+        initialize();
+    }
+
+    /**
+     * Initializes all of the game data to defaults so that the game can be
+     * easily reset by calling this function.
+     */
+    public void initialize() {
+        myMonsters = new MonsterStore();
+
+        myTowers = new EntityBag<Tower>();
+        towerLayoutVersion++;
+
+        currentWave = 0;
+        simulationTime = 0.0;
+        spawnScheduler.clear();
+        waveMonster = null;
+
+        monstersToKill = 0;
+
+        score = 0;
+        health = 100;
+        money = 1000;
+
+        isInPlaceMode = false;
+        paused = false;
+
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_SCORE, score);
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_HEALTH, health);
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_MONEY, money);
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_CURRENT_WAVE, currentWave);
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_MONSTER_COUNT, monstersToKill);
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_TIME_SCALE, timeScale);
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_PAUSED, 0);
+        MessageQueue.getInstance().push(
+            new Message<String>(MessageRecipient.CONTROL_PANEL,
+                MessageType.START_GAME, "Start Game"));
+
+        dead = false;
+    }
+
+    /**
+     * Returns whether there is currently nothing to simulate, which is the
+     * case on the menu and after the player has died.
+     *
+     * @return Whether the game has nothing to simulate.
+     */
+    public boolean isIdle() {
+        return currentLevel == 0 || dead;
+    }
+
+    /**
+     * Returns how many simulation ticks have been run.
+     *
+     * @return How many simulation ticks have been run.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Returns whether the player has paused the game. While paused, messages
+     * are still handled but no ticks are run.
+     *
+     * @return Whether the game is paused.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Returns how many simulation ticks the game loop runs for every tick's
+     * worth of real time.
+     *
+     * @return The time scale, or GameLoop.UNCAPPED to run ticks as fast as
+     * the machine allows.
+     */
+    public int getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Sets how many simulation ticks the game loop runs for every tick's
+     * worth of real time. Every tick is still the same length, so a game
+     * plays out exactly the same at any time scale, only sooner.
+     *
+     * @param timeScale The time scale, or GameLoop.UNCAPPED to run ticks as
+     * fast as the machine allows.
+     */
+    public void setTimeScale(int timeScale) {
+        if (timeScale < 0) {
+            System.out.println("ERROR: Time scale " + timeScale
+                + " is negative, keeping " + this.timeScale);
+            return;
+        }
+        this.timeScale = timeScale;
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_TIME_SCALE, timeScale);
+    }
+
+    /**
+     * Sets the recorder that every input message handled by the simulation
+     * is written to, along with the tick it was handled on.
+     *
+     * @param recorder The recorder to write to, or null to stop recording.
+     */
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Returns the metrics the simulation times its ticks into.
+     *
+     * @return The simulation's metrics.
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns whether the player has died.
+     *
+     * @return Whether the player has died.
+     */
+    public boolean isDead() {
+        return dead;
+    }
+
+    /**
+     * Returns the level currently being played, 0 being the menu.
+     *
+     * @return The level currently being played.
+     */
+    public int getCurrentLevel() {
+        return currentLevel;
+    }
+
+    /**
+     * Returns the current monster wave.
+     *
+     * @return The current monster wave.
+     */
+    public int getCurrentWave() {
+        return currentWave;
+    }
+
+    /**
+     * Returns how many monsters of the current wave are left to kill.
+     *
+     * @return How many monsters of the current wave are left to kill.
+     */
+    public int getMonstersToKill() {
+        return monstersToKill;
+    }
+
+    /**
+     * Returns the player's score.
+     *
+     * @return The player's score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the player's health.
+     *
+     * @return The player's health.
+     */
+    public int getHealth() {
+        return health;
+    }
+
+    /**
+     * Returns the player's money.
+     *
+     * @return The player's money.
+     */
+    public int getMoney() {
+        return money;
+    }
+
+    /**
+     * Returns all of the monsters on the level.
+     *
+     * @return All of the monsters on the level.
+     */
+    public MonsterStore getMonsters() {
+        return myMonsters;
+    }
+
+    /**
+     * Returns all of the towers on the level.
+     *
+     * @return All of the towers on the level.
+     */
+    public EntityBag<Tower> getTowers() {
+        return myTowers;
+    }
+
+    /**
+     * Returns the background image of the current level.
+     *
+     * @return The background image of the current level.
+     */
+    public BufferedImage getBackgroundImage() {
+        return backgroundImage;
+    }
+
+    /**
+     * Returns the path image of the current level.
+     *
+     * @return The path image of the current level.
+     */
+    public BufferedImage getPathImage() {
+        return pathImage;
+    }
+
+    /**
+     * Returns whether the player is currently placing a tower.
+     *
+     * @return Whether the player is currently placing a tower.
+     */
+    public boolean isInPlaceMode() {
+        return isInPlaceMode;
+    }
+
+    /**
+     * Returns the type of tower currently being placed.
+     *
+     * @return The type of tower currently being placed.
+     */
+    public TowerType getTowerToPlace() {
+        return towerToPlace;
+    }
+
+    /**
+     * Returns the image used for a given tower type.
+     *
+     * @param type The tower type to get the image for.
+     * @return The image used for the given tower type.
+     */
+    public BufferedImage getTowerImage(TowerType type) {
+        if (type == TowerType.BASIC_TOWER) {
+            return basicTowerPlacer;
+        } else if (type == TowerType.FAST_TOWER) {
+            return fastTowerPlacer;
+        } else {
+            return megaTowerPlacer;
+        }
+    }
+
+    /**
+     * Returns a template tower of the given type, used to look up the cost
+     * and range of a tower before it is placed.
+     *
+     * @param type The tower type to get the template for.
+     * @return The template tower for the given tower type.
+     */
+    public Tower getTowerTemplate(TowerType type) {
+        if (type == TowerType.BASIC_TOWER) {
+            return basic;
+        } else if (type == TowerType.FAST_TOWER) {
+            return fast;
+        } else {
+            return mega;
+        }
+    }
+
+    /**
+     * Returns the opacity mask of the image used for a given tower type.
+     *
+     * @param type The tower type to get the mask for.
+     * @return The opacity mask for the given tower type.
+     */
+    public OpacityMask getTowerMask(TowerType type) {
+        if (type == TowerType.BASIC_TOWER) {
+            return basicTowerMask;
+        } else if (type == TowerType.FAST_TOWER) {
+            return fastTowerMask;
+        } else {
+            return megaTowerMask;
+        }
+    }
+
+    /**
+     * Checks whether a tower of the given type can be placed centered on the
+     * given point without touching the path or any other tower.
+     *
+     * @param type The type of tower to place.
+     * @param center The point to center the tower on.
+     * @return True if the tower can be placed there.
+     */
+    public boolean canPlaceTower(TowerType type, Point center) {
+        OpacityMask towerMask = getTowerMask(type);
+        Point towerPosition = new Point(
+            (int) center.getX() - towerMask.getWidth() / 2,
+            (int) center.getY() - towerMask.getHeight() / 2);
+
+        for (int i = 0; i < myTowers.size(); i++) {
+            Tower t = myTowers.get(i);
+            if (ImageHelper.checkTowerTowerIntersection(towerMask,
+                towerPosition, t.getMask(), new Point(t.getX(), t.getY()))) {
+                return false;
+            }
+        }
+        return pathMask == null || !ImageHelper.checkTowerPathIntersection(
+            towerMask, towerPosition, pathMask);
+    }
+
+    /**
+     * Returns the exchange that render snapshots are published through.
+     *
+     * @return The exchange render snapshots are published through.
+     */
+    public SnapshotExchange getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Copies everything needed to draw the game into a render snapshot and
+     * publishes it. Must be called from the thread running the simulation.
+     */
+    public void publishSnapshot() {
+        RenderSnapshot snapshot = snapshots.getBackSnapshot();
+        snapshot.captureState(backgroundImage, pathImage, pathMask, dead,
+            isInPlaceMode, towerToPlace);
+        snapshot.captureTowers(myTowers, towerLayoutVersion);
+        snapshot.captureMonsters(myMonsters);
+        snapshots.publish();
+    }
+
+    /**
+     * Updates all of the game's stuff.
+     * Called once per fixed simulation tick.
+     *
+     * @param dt The time differential to use.
+     */
+    public void update(double dt) {
+        long tickStart = System.nanoTime();
+        processMessages();
+        long phaseStart = System.nanoTime();
+        metrics.recordPhase(GameMetrics.MESSAGES, phaseStart - tickStart);
+
+        if (health <= 0 && !dead) {
+            dead = true;
+            MessageQueue.getInstance().push(
+                new Message<String>(MessageRecipient.CONTROL_PANEL,
+                    MessageType.END_GAME, "End Game"));
+        }
+
+        if (!dead) {
+            updateWaveSpawning(dt);
+            phaseStart = recordPhase(GameMetrics.SPAWNING, phaseStart);
+
+            monsterGrid.rebuild(myMonsters);
+            towerPhase.update(dt, myTowers, myMonsters, monsterGrid);
+            phaseStart = recordPhase(GameMetrics.TARGETING, phaseStart);
+
+            myMonsters.update(dt);
+            phaseStart = recordPhase(GameMetrics.MOVEMENT, phaseStart);
+
+            int removed = myMonsters.removeDead();
+            for (int i = 0; i < removed; i++) {
+                if (monstersToKill == 1) {
+                    MessageQueue.getInstance().push(
+                        new Message<String>(MessageRecipient.CONTROL_PANEL,
+                            MessageType.ENABLE_SPAWN_BUTTON,
+                            "Enable Spawn Button"));
+                }
+                monstersToKill--;
+                EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+                    MessageType.UPDATE_MONSTER_COUNT, monstersToKill);
+            }
+            recordPhase(GameMetrics.REMOVAL, phaseStart);
+        }
+        tickCount++;
+        metrics.recordTick(System.nanoTime() - tickStart, myMonsters.size(),
+            myTowers.size());
+    }
+
+    /**
+     * Records how long a phase of the current tick took.
+     *
+     * @param phase The phase that just finished.
+     * @param phaseStart When the phase started, from System.nanoTime().
+     * @return When the phase finished, which is when the next one starts.
+     */
+    private long recordPhase(int phase, long phaseStart) {
+        long phaseEnd = System.nanoTime();
+        metrics.recordPhase(phase, phaseEnd - phaseStart);
+        return phaseEnd;
+    }
+
+    /**
+     * Moves simulation time on by a tick and spawns every monster that has
+     * come due by then. Spawn timing runs on simulation time, so it follows
+     * the game rather than the wall clock, pausing and speeding up with it.
+     *
+     * @param dt The time differential to use.
+     */
+    private void updateWaveSpawning(double dt) {
+        simulationTime += dt;
+        spawnScheduler.spawnDue(simulationTime, myMonsters);
+    }
+
+    /**
+     * Creates the monster every monster of the current wave is spawned from.
+     * Every fifth wave is a wave of tanks.
+     *
+     * @return The monster to spawn the current wave from.
+     */
+    private Monster createWaveMonster() {
+        if (currentWave % 5 == 0) {
+            return new Tank(currentWave);
+        } else {
+            return new Monster(currentWave);
+        }
+    }
+
+    /**
+     * Changes the level to the one specified by levelIndex.
+     *
+     * @param levelIndex The level to change to.
+     */
+    public void changeLevel(int levelIndex) {
+        LevelDescriptor level
+            = LevelCatalog.getInstance().loadLevel(levelIndex);
+        if (level != null) {
+            backgroundImage = level.getBackgroundImage();
+            pathImage = level.getPathImage();
+            myMonsters.setPath(level.getPathTable());
+        } else {
+            backgroundImage = null;
+            pathImage = null;
+            myMonsters.setPath(new PathTable(null));
+        }
+        pathMask = pathImage != null ? OpacityMask.getMask(pathImage) : null;
+    }
+
+    /**
+     * Places a tower of the given type centered on the given point if the
+     * player can afford it and the spot is free.
+     *
+     * @param type The type of tower to place.
+     * @param spawnPoint The point to center the tower on.
+     */
+    private void spawnTower(TowerType type, Point spawnPoint) {
+        Tower template = getTowerTemplate(type);
+        if (template.getCost() > money || !canPlaceTower(type, spawnPoint)) {
+            return;
+        }
+
+        BufferedImage towerImage = getTowerImage(type);
+        int x = (int) (spawnPoint.getX() - towerImage.getWidth() / 2);
+        int y = (int) (spawnPoint.getY() - towerImage.getHeight() / 2);
+        if (type == TowerType.BASIC_TOWER) {
+            myTowers.add(new BasicTower(x, y));
+        } else if (type == TowerType.FAST_TOWER) {
+            myTowers.add(new FastTower(x, y));
+        } else {
+            myTowers.add(new MegaTower(x, y));
+        }
+        towerLayoutVersion++;
+
+        money -= template.getCost();
+        EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+            MessageType.UPDATE_MONEY, money);
+        isInPlaceMode = false;
+    }
+
+    /**
+     * Switches to a level, resetting the game when starting a level and
+     * telling the control panel whether to show the menu or the game.
+     *
+     * @param level The level to switch to, 0 being the menu.
+     */
+    private void openLevel(int level) {
+        if (level == 0) {
+            MessageQueue.getInstance().push(new Message<String>(
+                MessageRecipient.CONTROL_PANEL, MessageType.OPEN_MENU,
+                "Open Menu"));
+            dead = false;
+        } else {
+            MessageQueue.getInstance().push(new Message<String>(
+                MessageRecipient.CONTROL_PANEL, MessageType.OPEN_GAME,
+                "Open Game"));
+            initialize();
+        }
+
+        currentLevel = level;
+        changeLevel(level);
+    }
+
+    /**
+     * Handles a click on the game area. Clicking after dying goes back to the
+     * menu, and clicking while placing a tower places it there if the player
+     * can afford it and the spot is free.
+     *
+     * @param clickPoint The point that was clicked.
+     */
+    private void handleClick(Point clickPoint) {
+        if (dead) {
+            openLevel(0);
+        } else if (isInPlaceMode) {
+            spawnTower(towerToPlace, clickPoint);
+        }
+    }
+
+    /**
+     * Handles the damage, score and money events sent by the monsters. The
+     * control panel is only told the new totals once per batch of events,
+     * however many monsters died.
+     */
+    private void processEvents() {
+        int count;
+        while ((count = EventChannel.getInstance().drainTo(
+            MessageRecipient.GAME_PANEL, eventTypes, eventValues)) > 0) {
+            for (int i = 0; i < count; i++) {
+                applyEvent(EventChannel.getType(eventTypes[i]),
+                    eventValues[i]);
+            }
+        }
+
+        if (healthChanged) {
+            EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+                MessageType.UPDATE_HEALTH, health);
+        }
+        if (scoreChanged) {
+            EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+                MessageType.UPDATE_SCORE, score);
+        }
+        if (moneyChanged) {
+            EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+                MessageType.UPDATE_MONEY, money);
+        }
+        healthChanged = false;
+        scoreChanged = false;
+        moneyChanged = false;
+    }
+
+    /**
+     * Applies a single damage, score or money event, noting down which
+     * totals the control panel needs to be told about.
+     *
+     * @param type What kind of event it is.
+     * @param value The number the event carries.
+     */
+    private void applyEvent(MessageType type, long value) {
+        if (type == MessageType.DEAL_DAMAGE) {
+            health -= (int) value;
+            healthChanged = true;
+        } else if (type == MessageType.ADD_SCORE) {
+            score += (int) value;
+            scoreChanged = true;
+        } else if (type == MessageType.ADD_MONEY) {
+            money += (int) value;
+            moneyChanged = true;
+        } else {
+            System.out.println("Unrecognized event processed in game"
+                + " simulation: " + type + " " + value);
+        }
+    }
+
+    /**
+     * Handles all message processing for the game. Events waiting in the
+     * event channel are handled first, since they were all sent during the
+     * last tick.
+     */
+    public void processMessages() {
+        processEvents();
+
+        Message<?> currentMessage;
+        while ((currentMessage = MessageQueue.getInstance().pop(
+            MessageRecipient.GAME_PANEL)) != null) {
+			// Pausing and the time scale only change when ticks are run, not
+			// what happens in them, so they are handled before they can be
+			// recorded
+            if (currentMessage.getMessageType()
+                == MessageType.SET_TIME_SCALE) {
+                setTimeScale((Integer) currentMessage.getMessageData());
+                continue;
+            } else if (currentMessage.getMessageType()
+                == MessageType.TOGGLE_PAUSE) {
+                paused = !paused;
+                EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+                    MessageType.UPDATE_PAUSED, paused ? 1 : 0);
+                continue;
+            }
+            if (recorder != null) {
+                recorder.record(tickCount, currentMessage);
+            }
+            if (currentMessage.getMessageType() == MessageType.QUIT_GAME) {
+                System.exit(1);
+            } else if (currentMessage.getMessageType()
+                == MessageType.PLACE_BASIC_TOWER) {
+                if (basic.getCost() <= money) {
+                    isInPlaceMode = true;
+                    towerToPlace = TowerType.BASIC_TOWER;
+                }
+            } else if (currentMessage.getMessageType()
+                == MessageType.PLACE_FAST_TOWER) {
+                if (fast.getCost() <= money) {
+                    isInPlaceMode = true;
+                    towerToPlace = TowerType.FAST_TOWER;
+                }
+            } else if (currentMessage.getMessageType()
+                == MessageType.PLACE_MEGA_TOWER) {
+                if (mega.getCost() <= money) {
+                    isInPlaceMode = true;
+                    towerToPlace = TowerType.MEGA_TOWER;
+                }
+            } else if (currentMessage.getMessageType()
+                == MessageType.SPAWN_BASIC_TOWER) {
+                spawnTower(TowerType.BASIC_TOWER,
+                    (Point) currentMessage.getMessageData());
+            } else if (currentMessage.getMessageType()
+                == MessageType.SPAWN_FAST_TOWER) {
+                spawnTower(TowerType.FAST_TOWER,
+                    (Point) currentMessage.getMessageData());
+            } else if (currentMessage.getMessageType()
+                == MessageType.SPAWN_MEGA_TOWER) {
+                spawnTower(TowerType.MEGA_TOWER,
+                    (Point) currentMessage.getMessageData());
+            } else if (currentMessage.getMessageType()
+                == MessageType.SPAWN_WAVE) {
+                currentWave++;
+                int monstersToSpawn;
+                double timeBetweenMonsterSpawn;
+                if (currentWave % 5 == 0) {
+                    monstersToSpawn = currentWave / 5;
+                    timeBetweenMonsterSpawn = 10.0;
+                } else {
+                    monstersToSpawn = currentWave * currentWave;
+                    timeBetweenMonsterSpawn = (5000 / currentWave) / 1000.0;
+                }
+                monstersToKill = monstersToSpawn;
+                waveMonster = createWaveMonster();
+				// A new wave replaces whatever was left of the last one
+                spawnScheduler.clear();
+                spawnScheduler.schedule(
+                    simulationTime + timeBetweenMonsterSpawn, waveMonster,
+                    monstersToSpawn, timeBetweenMonsterSpawn);
+                EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+                    MessageType.UPDATE_CURRENT_WAVE, currentWave);
+                MessageQueue.getInstance().push(
+                    new Message<String>(MessageRecipient.CONTROL_PANEL,
+                        MessageType.DISABLE_SPAWN_BUTTON,
+                        "Disable Spawn Button"));
+                EventChannel.getInstance().send(MessageRecipient.CONTROL_PANEL,
+                    MessageType.UPDATE_MONSTER_COUNT, monstersToKill);
+            } else if (currentMessage.getMessageType()
+                == MessageType.CHANGE_LEVEL) {
+                openLevel((int) currentMessage.getMessageData());
+            } else if (currentMessage.getMessageType()
+                == MessageType.GAME_CLICKED) {
+                handleClick((Point) currentMessage.getMessageData());
+            } else {
+                System.out.println("Unrecognized message processed in game"
+                    + " simulation!");
+                System.out.println("Message contents are as follows:");
+                System.out.println("Message Recipient: "
+                    + currentMessage.getMessageRecipient());
+                System.out.println("Message Type: "
+                    + currentMessage.getMessageType());
+                System.out.println("Message Data: "
+                    + currentMessage.getMessageData());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Class to run a game without any display.
+ * Plays a level by spawning waves back to back at the fixed tick rate, as fast
+ * as the machine allows, and prints how far it got. Run it with
+ * -Djava.awt.headless=true on machines without a display.
+ *
+ * Usage: java HeadlessGame [level] [waves] [tickRate]
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class HeadlessGame {
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int level = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int waves = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int tickRate = args.length > 2 ? Integer.parseInt(args[2])
+            : GameLoop.DEFAULT_TICK_RATE;
+        double dt = 1.0 / tickRate;
+
+        GameSimulation simulation = new GameSimulation();
+        simulation.setRecorder(ReplayRecorder.fromProperty(simulation,
+            tickRate));
+        MessageQueue.getInstance().push(new Message<Integer>(
+            MessageRecipient.GAME_PANEL, MessageType.CHANGE_LEVEL, level));
+        simulation.processMessages();
+
+        long ticks = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < waves && !simulation.isDead(); i++) {
+            MessageQueue.getInstance().push(new Message<String>(
+                MessageRecipient.GAME_PANEL, MessageType.SPAWN_WAVE,
+                "Spawn Wave"));
+            do {
+                simulation.update(dt);
+                ticks++;
+				// Nobody is listening for control panel updates, so throw
+				// them away rather than letting them pile up
+                while (MessageQueue.getInstance().pop(
+                    MessageRecipient.CONTROL_PANEL) != null) {
+                    continue;
+                }
+                EventChannel.getInstance().clear(
+                    MessageRecipient.CONTROL_PANEL);
+            } while (simulation.getMonstersToKill() > 0
+                && !simulation.isDead());
+        }
+        double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+
+        System.out.println("Level: " + level);
+        System.out.println("Waves reached: " + simulation.getCurrentWave());
+        System.out.println("Score: " + simulation.getScore());
+        System.out.println("Health: " + simulation.getHealth());
+        System.out.println("Money: " + simulation.getMoney());
+        System.out.println("Ticks: " + ticks + " (" + (ticks * dt)
+            + "s of game time in " + seconds + "s)");
+        System.exit(0);
+    }
+}
@@ -0,0 +1,163 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javax.imageio.ImageIO;
+
+/**
+ * Singleton class to hold every image the game loads.
+ * Each image file is read and decoded only once, then converted to a format
+ * that matches the screen so that drawing it can be hardware accelerated.
+ * Everyone asking for the same file gets the same shared image back, so the
+ * images handed out must never be drawn on or otherwise changed.
+ * Different images can be read on different threads at the same time; a
+ * thread asking for an image that another thread is already reading waits for
+ * that read to finish instead of reading the file again.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class ImageCache {
+    private ConcurrentHashMap<String, FutureTask<BufferedImage>> loadedImages;
+    private static ImageCache instance = new ImageCache();
+
+    private ImageCache() {
+        // Private constructor, this should never be called
+        // Clients should instead use get instance
+        loadedImages
+            = new ConcurrentHashMap<String, FutureTask<BufferedImage>>();
+    }
+
+    /**
+     * Returns the singleton instance for the ImageCache.
+     *
+     * @return Singleton instance for the image cache.
+     */
+    public static ImageCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the shared image for the given file, reading it the first time
+     * it is asked for.
+     *
+     * @param fileName The image file to load.
+     * @return The shared image, or null if the image could not be read.
+     */
+    public BufferedImage getImage(final String fileName) {
+        return getImage(fileName, new Callable<BufferedImage>() {
+            @Override
+            public BufferedImage call() throws IOException {
+                BufferedImage decoded = ImageIO.read(new File(fileName));
+                if (decoded == null) {
+                    throw new IOException("Unsupported image format");
+                }
+                return decoded;
+            }
+        });
+    }
+
+    /**
+     * Returns the shared image with the given name, decoding it with the
+     * given decoder the first time it is asked for. Used for images that do
+     * not come from their own file, such as those in a level pack.
+     *
+     * @param name The name of the image.
+     * @param decoder Decodes the image, returning it in any format.
+     * @return The shared image, or null if the image could not be decoded.
+     */
+    public BufferedImage getImage(String name,
+        final Callable<BufferedImage> decoder) {
+        FutureTask<BufferedImage> load = loadedImages.get(name);
+        if (load == null) {
+            FutureTask<BufferedImage> newLoad = new FutureTask<BufferedImage>(
+                new Callable<BufferedImage>() {
+                    @Override
+                    public BufferedImage call() throws Exception {
+                        return toCompatibleImage(decoder.call());
+                    }
+                });
+            load = loadedImages.putIfAbsent(name, newLoad);
+            if (load == null) {
+                load = newLoad;
+                load.run();
+            }
+        }
+
+        BufferedImage image = null;
+        try {
+            image = load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("ERROR: Could not read image " + name);
+            System.out.println(e.getCause().getMessage());
+        }
+		// Forget failed reads so that the next call tries the image again
+        if (image == null) {
+            loadedImages.remove(name, load);
+        }
+        return image;
+    }
+
+    /**
+     * Creates a blank image in the format of the default screen, or a plain
+     * ARGB image when there is no screen. Meant for images the game draws
+     * into itself, such as cached layers.
+     *
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @param transparency The transparency of the image, one of the
+     * constants in java.awt.Transparency.
+     * @return The new image.
+     */
+    public static BufferedImage createCompatibleImage(int width, int height,
+        int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_ARGB);
+        }
+        return getScreenConfiguration().createCompatibleImage(width, height,
+            transparency);
+    }
+
+    /**
+     * Returns the graphics configuration of the default screen.
+     *
+     * @return The graphics configuration of the default screen.
+     */
+    private static GraphicsConfiguration getScreenConfiguration() {
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+            .getDefaultScreenDevice().getDefaultConfiguration();
+    }
+
+    /**
+     * Converts an image to the format of the default screen, or to a plain
+     * ARGB image when there is no screen.
+     *
+     * @param image The image to convert.
+     * @return The converted image, or the image itself if it already matches.
+     */
+    private static BufferedImage toCompatibleImage(BufferedImage image) {
+        if (GraphicsEnvironment.isHeadless()) {
+            if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+                return image;
+            }
+        } else if (image.getColorModel().equals(getScreenConfiguration()
+            .getColorModel(image.getTransparency()))) {
+            return image;
+        }
+        BufferedImage converted = createCompatibleImage(image.getWidth(),
+            image.getHeight(), image.getTransparency());
+        Graphics2D g = converted.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return converted;
+    }
+}
@@ -0,0 +1,167 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class to count how long something takes, in nanoseconds, cheaply enough to
+ * do on every tick.
+ * Times are counted in buckets that are spaced out logarithmically, sixteen to
+ * each power of two, so every bucket is within about 6% of the times in it no
+ * matter how long they are, and recording a time is a couple of shifts and an
+ * add with no allocation. Only one thread may record into a histogram, but any
+ * thread can read it while it is being recorded into. Resetting it only moves
+ * the reader's starting point, so it never gets in the way of the recording
+ * thread.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (65 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private AtomicLongArray counts;
+    private AtomicLong total;
+
+    private long[] resetCounts;
+    private long resetTotal;
+
+    /**
+     * Constructs a new, empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        total = new AtomicLong();
+        resetCounts = new long[BUCKETS];
+        resetTotal = 0;
+    }
+
+    /**
+     * Records how long something took. Must only be called from one thread.
+     *
+     * @param nanos How long it took, in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int bucket = getBucket(nanos);
+		// There is only ever one writer, so there is no need for an atomic
+		// add, only for the other threads to see whole values
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        total.lazySet(total.get() + nanos);
+    }
+
+    /**
+     * Returns which bucket a time is counted in.
+     *
+     * @param nanos The time, in nanoseconds.
+     * @return The bucket the time is counted in.
+     */
+    private static int getBucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS))
+            & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the longest time that is counted in a bucket.
+     *
+     * @param bucket The bucket.
+     * @return The longest time counted in the bucket, in nanoseconds.
+     */
+    private static long getBucketLimit(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Forgets everything recorded so far, as far as readers are concerned.
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            resetCounts[i] = counts.get(i);
+        }
+        resetTotal = total.get();
+    }
+
+    /**
+     * Returns how many times have been recorded since the last reset.
+     *
+     * @return How many times have been recorded.
+     */
+    public synchronized long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i) - resetCounts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the average time recorded since the last reset.
+     *
+     * @return The average time, in nanoseconds, or 0 if nothing has been
+     * recorded.
+     */
+    public synchronized double getMean() {
+        long count = getCount();
+        if (count == 0) {
+            return 0.0;
+        }
+        return (double) (total.get() - resetTotal) / count;
+    }
+
+    /**
+     * Returns the time that a given percentage of the times recorded since
+     * the last reset were no longer than.
+     *
+     * @param percentile The percentage, from 0 to 100.
+     * @return The time, in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+		// Copy the counts first, so that times recorded while we look
+		// cannot make them add up to more than the total
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i) - resetCounts[i];
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long wanted = (long) Math.ceil(count * Math.min(percentile, 100.0)
+            / 100.0);
+        wanted = Math.max(wanted, 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= wanted) {
+                return getBucketLimit(i);
+            }
+        }
+        return getBucketLimit(BUCKETS - 1);
+    }
+
+    /**
+     * Returns the longest time recorded since the last reset, to within the
+     * size of its bucket.
+     *
+     * @return The longest time, in nanoseconds, or 0 if nothing has been
+     * recorded.
+     */
+    public long getMax() {
+        return getValueAtPercentile(100.0);
+    }
+}
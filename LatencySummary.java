@@ -0,0 +1,98 @@
+/**
+ * Class to hold a summary of a latency histogram at one point in time, in
+ * microseconds. Shown as a single composite attribute over JMX, so each phase
+ * of a tick reads as one row in JConsole or VisualVM.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class LatencySummary {
+    private long count;
+    private double mean;
+    private double median;
+    private double percentile90;
+    private double percentile99;
+    private double max;
+
+    /**
+     * Constructs a new LatencySummary of a histogram.
+     *
+     * @param histogram The histogram to summarize.
+     */
+    public LatencySummary(LatencyHistogram histogram) {
+        synchronized (histogram) {
+            count = histogram.getCount();
+            mean = histogram.getMean() / 1000.0;
+            median = histogram.getValueAtPercentile(50.0) / 1000.0;
+            percentile90 = histogram.getValueAtPercentile(90.0) / 1000.0;
+            percentile99 = histogram.getValueAtPercentile(99.0) / 1000.0;
+            max = histogram.getMax() / 1000.0;
+        }
+    }
+
+    /**
+     * Returns how many times were recorded.
+     *
+     * @return How many times were recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the average time.
+     *
+     * @return The average time, in microseconds.
+     */
+    public double getMeanMicros() {
+        return mean;
+    }
+
+    /**
+     * Returns the time half of the times were no longer than.
+     *
+     * @return The median time, in microseconds.
+     */
+    public double getMedianMicros() {
+        return median;
+    }
+
+    /**
+     * Returns the time 90% of the times were no longer than.
+     *
+     * @return The 90th percentile time, in microseconds.
+     */
+    public double getPercentile90Micros() {
+        return percentile90;
+    }
+
+    /**
+     * Returns the time 99% of the times were no longer than.
+     *
+     * @return The 99th percentile time, in microseconds.
+     */
+    public double getPercentile99Micros() {
+        return percentile99;
+    }
+
+    /**
+     * Returns the longest time.
+     *
+     * @return The longest time, in microseconds.
+     */
+    public double getMaxMicros() {
+        return max;
+    }
+
+    /**
+     * Returns the summary as a line of text.
+     *
+     * @return The summary as a line of text.
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.1fus p50=%.1fus p90=%.1fus"
+            + " p99=%.1fus max=%.1fus", count, mean, median, percentile90,
+            percentile99, max);
+    }
+}
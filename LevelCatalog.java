@@ -0,0 +1,201 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Singleton class to hold every level defined in the level file.
+ * The level file is read once, the first time the catalog is used, into a
+ * table of level descriptors keyed by level number, so finding a level never
+ * means reading the file again no matter how many levels it has. A level's
+ * images and path nodes are only loaded the first time the level is asked for,
+ * and are then loaded side by side on the common fork-join pool.
+ * If the towerdefense.levelPack system property names a level pack, the
+ * levels are read out of that pack instead of the level file.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class LevelCatalog {
+    private static LevelCatalog instance = createInstance();
+
+    private HashMap<Integer, LevelDescriptor> levels;
+    private Executor loader;
+
+    /**
+     * Constructs a new LevelCatalog from a level file.
+     *
+     * @param levelFile The level file to read.
+     */
+    public LevelCatalog(File levelFile) {
+        levels = new HashMap<Integer, LevelDescriptor>();
+        loader = ForkJoinPool.commonPool();
+
+        try (BufferedReader fileInput
+            = new BufferedReader(new FileReader(levelFile))) {
+            readLevels(fileInput);
+        } catch (IOException e) {
+            System.out.println("ERROR: Could not read level file "
+                + levelFile);
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Constructs a new LevelCatalog from a level pack.
+     *
+     * @param pack The level pack to read the levels from.
+     */
+    public LevelCatalog(LevelPack pack) {
+        levels = new HashMap<Integer, LevelDescriptor>();
+        loader = ForkJoinPool.commonPool();
+
+        for (int i = 0; i < pack.getLevelCount(); i++) {
+            int levelIndex = pack.getLevelNumber(i);
+            levels.put(levelIndex, new LevelDescriptor(levelIndex, pack));
+        }
+    }
+
+    /**
+     * Creates the singleton instance from the level pack named by the
+     * towerdefense.levelPack system property, or from levels.cfg if there is
+     * none or it cannot be opened.
+     *
+     * @return The new level catalog.
+     */
+    private static LevelCatalog createInstance() {
+        String packName = System.getProperty("towerdefense.levelPack");
+        if (packName != null) {
+            try {
+                return new LevelCatalog(new LevelPack(new File(packName)));
+            } catch (IOException | RuntimeException e) {
+				// A broken pack should not stop the game from starting
+                System.out.println("ERROR: Could not open level pack "
+                    + packName + ", using levels.cfg instead");
+                System.out.println(e.getMessage());
+            }
+        }
+        return new LevelCatalog(new File("levels.cfg"));
+    }
+
+    /**
+     * Returns the singleton instance of the LevelCatalog.
+     *
+     * @return Singleton instance of the level catalog.
+     */
+    public static LevelCatalog getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns how many levels are defined, including the menu.
+     *
+     * @return How many levels are defined.
+     */
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Returns the numbers of every level, in order.
+     *
+     * @return The numbers of every level.
+     */
+    public int[] getLevelNumbers() {
+        int[] levelNumbers = new int[levels.size()];
+        int i = 0;
+        for (Integer levelIndex : levels.keySet()) {
+            levelNumbers[i++] = levelIndex;
+        }
+        Arrays.sort(levelNumbers);
+        return levelNumbers;
+    }
+
+    /**
+     * Returns a level without loading any of its assets.
+     *
+     * @param levelIndex The number of the level.
+     * @return The level, or null if there is no such level.
+     */
+    public LevelDescriptor getLevel(int levelIndex) {
+        return levels.get(levelIndex);
+    }
+
+    /**
+     * Returns a level and starts loading its assets if this is the first
+     * time it has been asked for.
+     *
+     * @param levelIndex The number of the level.
+     * @return The level, or null if there is no such level.
+     */
+    public LevelDescriptor loadLevel(int levelIndex) {
+        LevelDescriptor level = levels.get(levelIndex);
+        if (level == null) {
+            System.out.println("ERROR: There is no level " + levelIndex);
+            return null;
+        }
+        level.startLoading(loader);
+        return level;
+    }
+
+    /**
+     * Reads every level out of a level file. A level starts with its number
+     * in angle brackets, such as &lt;1&gt;, ends with &lt;/1&gt;, and has one
+     * "key value" line for each of its files in between.
+     *
+     * @param fileInput The level file to read.
+     * @throws IOException If the level file could not be read.
+     */
+    private void readLevels(BufferedReader fileInput) throws IOException {
+        int levelIndex = -1;
+        String backgroundImageFile = null;
+        String pathImageFile = null;
+        String pathNodeListFile = null;
+
+        String currentLine;
+        while ((currentLine = fileInput.readLine()) != null) {
+            currentLine = currentLine.trim();
+            if (currentLine.isEmpty()) {
+                continue;
+            }
+
+            if (currentLine.startsWith("</")) {
+                if (levelIndex >= 0) {
+                    levels.put(levelIndex, new LevelDescriptor(levelIndex,
+                        backgroundImageFile, pathImageFile,
+                        pathNodeListFile));
+                }
+                levelIndex = -1;
+            } else if (currentLine.startsWith("<")) {
+                try {
+                    levelIndex = Integer.parseInt(currentLine.substring(1,
+                        currentLine.indexOf('>')).trim());
+                } catch (NumberFormatException
+                    | StringIndexOutOfBoundsException e) {
+                    System.out.println("ERROR: Bad level header "
+                        + currentLine);
+                    levelIndex = -1;
+                }
+                backgroundImageFile = null;
+                pathImageFile = null;
+                pathNodeListFile = null;
+            } else if (levelIndex >= 0 && currentLine.indexOf(' ') > 0) {
+                String key = currentLine.substring(0,
+                    currentLine.indexOf(' '));
+                String value = currentLine.substring(
+                    currentLine.indexOf(' ') + 1).trim();
+                if (key.equals("backgroundImage")) {
+                    backgroundImageFile = value;
+                } else if (key.equals("pathImage")) {
+                    pathImageFile = value;
+                } else if (key.equals("pathNodeListFile")) {
+                    pathNodeListFile = value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import java.awt.image.BufferedImage;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class to describe one level from the level file and load its assets.
+ * A descriptor only holds the names of the level's files until its assets are
+ * first needed. Loading then reads the background image, the path image and
+ * the path nodes as three separate tasks, so they can be read at the same time
+ * on different threads. Asking for an asset that has not been loaded yet reads
+ * it on the asking thread rather than waiting for a loader thread to get round
+ * to it, so a level can always be loaded even if no loader is free.
+ * A level can come from loose files or from a level pack, in which case the
+ * file names are the names of the images in the pack.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class LevelDescriptor {
+    private int index;
+    private String backgroundImageFile;
+    private String pathImageFile;
+    private String pathNodeListFile;
+    private LevelPack pack;
+
+    private FutureTask<BufferedImage> backgroundLoad;
+    private FutureTask<BufferedImage> pathLoad;
+    private FutureTask<Vector<PathNode>> pathNodeLoad;
+    private AtomicBoolean loadStarted;
+    private PathTable pathTable;
+
+    /**
+     * Constructs a new LevelDescriptor for a level made of loose files.
+     *
+     * @param index The number of the level.
+     * @param backgroundImageFile The background image file of the level.
+     * @param pathImageFile The path image file of the level, or null.
+     * @param pathNodeListFile The path node file of the level, or null.
+     */
+    public LevelDescriptor(int index, String backgroundImageFile,
+        String pathImageFile, String pathNodeListFile) {
+        this(index, backgroundImageFile, pathImageFile, pathNodeListFile,
+            null);
+    }
+
+    /**
+     * Constructs a new LevelDescriptor for a level in a level pack.
+     *
+     * @param index The number of the level.
+     * @param pack The level pack the level is in.
+     */
+    public LevelDescriptor(int index, LevelPack pack) {
+        this(index, pack.getBackgroundImageName(index),
+            pack.getPathImageName(index), null, pack);
+    }
+
+    /**
+     * Constructs a new LevelDescriptor.
+     *
+     * @param index The number of the level.
+     * @param backgroundImageFile The background image of the level.
+     * @param pathImageFile The path image of the level, or null.
+     * @param pathNodeListFile The path node file of the level, or null.
+     * @param pack The level pack the level is in, or null for loose files.
+     */
+    private LevelDescriptor(final int index, String backgroundImageFile,
+        String pathImageFile, final String pathNodeListFile,
+        final LevelPack pack) {
+        this.index = index;
+        this.backgroundImageFile = backgroundImageFile;
+        this.pathImageFile = pathImageFile;
+        this.pathNodeListFile = pathNodeListFile;
+        this.pack = pack;
+
+        backgroundLoad = new FutureTask<BufferedImage>(
+            new Callable<BufferedImage>() {
+                @Override
+                public BufferedImage call() {
+                    return loadImage(getBackgroundImageFile());
+                }
+            });
+        pathLoad = new FutureTask<BufferedImage>(
+            new Callable<BufferedImage>() {
+                @Override
+                public BufferedImage call() {
+                    BufferedImage image = loadImage(getPathImageFile());
+					// Build the path's mask here too, so it is ready for
+					// placement checks as soon as the level starts
+                    if (image != null) {
+                        OpacityMask.getMask(image);
+                    }
+                    return image;
+                }
+            });
+        pathNodeLoad = new FutureTask<Vector<PathNode>>(
+            new Callable<Vector<PathNode>>() {
+                @Override
+                public Vector<PathNode> call() {
+                    if (pack != null) {
+                        return pack.readPathNodes(index);
+                    } else if (pathNodeListFile == null) {
+                        return null;
+                    }
+                    return LevelHelper.loadPathNodeList(pathNodeListFile);
+                }
+            });
+        loadStarted = new AtomicBoolean(false);
+    }
+
+    /**
+     * Starts loading the level's assets on the given executor, if they are
+     * not already being loaded.
+     *
+     * @param executor The executor to load the assets on.
+     */
+    public void startLoading(Executor executor) {
+        if (loadStarted.compareAndSet(false, true)) {
+            executor.execute(pathLoad);
+            executor.execute(pathNodeLoad);
+            executor.execute(backgroundLoad);
+        }
+    }
+
+    /**
+     * Returns the number of the level.
+     *
+     * @return The number of the level.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the name of the level's background image file.
+     *
+     * @return The name of the background image file, or null.
+     */
+    public String getBackgroundImageFile() {
+        return backgroundImageFile;
+    }
+
+    /**
+     * Returns the name of the level's path image file.
+     *
+     * @return The name of the path image file, or null.
+     */
+    public String getPathImageFile() {
+        return pathImageFile;
+    }
+
+    /**
+     * Returns the name of the level's path node file.
+     *
+     * @return The name of the path node file, or null if it has none or is
+     * in a level pack.
+     */
+    public String getPathNodeListFile() {
+        return pathNodeListFile;
+    }
+
+    /**
+     * Returns the background image of the level, loading it if it has not
+     * been loaded yet.
+     *
+     * @return The background image of the level, or null.
+     */
+    public BufferedImage getBackgroundImage() {
+        return finishLoad(backgroundLoad);
+    }
+
+    /**
+     * Returns the path image of the level, loading it if it has not been
+     * loaded yet.
+     *
+     * @return The path image of the level, or null if it has none.
+     */
+    public BufferedImage getPathImage() {
+        return finishLoad(pathLoad);
+    }
+
+    /**
+     * Returns the path nodes of the level, loading them if they have not been
+     * loaded yet.
+     *
+     * @return The path nodes of the level, or null if it has none.
+     */
+    public Vector<PathNode> getPathNodes() {
+        return finishLoad(pathNodeLoad);
+    }
+
+    /**
+     * Returns the level's path measured out by distance, building it from the
+     * path nodes the first time it is asked for.
+     *
+     * @return The path table of the level, which is empty if it has no path.
+     */
+    public synchronized PathTable getPathTable() {
+        if (pathTable == null) {
+            pathTable = new PathTable(getPathNodes());
+        }
+        return pathTable;
+    }
+
+    /**
+     * Runs a load on this thread if no other thread has started it, then
+     * waits for it to finish.
+     *
+     * @param <T> The type of asset being loaded.
+     * @param load The load to finish.
+     * @return The result of the load, or null if it failed.
+     */
+    private <T> T finishLoad(FutureTask<T> load) {
+        load.run();
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("ERROR: Could not load assets for level "
+                + index);
+            System.out.println(e.getCause());
+        }
+        return null;
+    }
+
+    /**
+     * Gets an image from the level pack, or from the image cache for loose
+     * files.
+     *
+     * @param fileName The image to load, or null.
+     * @return The image, or null if there is no file or it could not be read.
+     */
+    private BufferedImage loadImage(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        BufferedImage image = pack != null ? pack.getImage(fileName)
+            : ImageCache.getInstance().getImage(fileName);
+        if (image == null) {
+            System.out.println("ERROR: Could not read image " + fileName
+                + " for level " + index);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,374 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import javax.imageio.ImageIO;
+
+/**
+ * Class to read levels out of a single packed level file.
+ * The whole pack is memory mapped when it is opened, so loading a level never
+ * opens another file and reads straight out of the mapping. A pack is laid
+ * out as follows, with every number a big endian int unless noted:
+ * <pre>
+ * header       magic, version, level count, image count
+ * level table  per level: level number, background image id, path image id,
+ *              path node offset, path node count (ids are -1 for none)
+ * image table  per image: name length (short), name (UTF-8 bytes), encoding,
+ *              width, height, data offset, data length
+ * data         path nodes as x,y int pairs, then the image data
+ * </pre>
+ * Images are either stored already decoded as ARGB pixels, which only need
+ * copying out of the mapping, or as the original PNG bytes, which makes for a
+ * much smaller pack but still needs decoding. Packs are built from a level
+ * file and its images by LevelPackBuilder.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class LevelPack {
+    public static final int MAGIC = 0x54444C50;
+    public static final int VERSION = 1;
+    public static final int ENCODING_ARGB = 0;
+    public static final int ENCODING_PNG = 1;
+
+    // Sizes in bytes of the fixed parts of the pack
+    private static final int HEADER_SIZE = 16;
+    private static final int LEVEL_ENTRY_SIZE = 20;
+    private static final int MIN_IMAGE_ENTRY_SIZE = 22;
+    private static final int NODE_SIZE = 8;
+
+    private File packFile;
+    private MappedByteBuffer buffer;
+
+    private int[] levelNumbers;
+    private int[] backgroundIds;
+    private int[] pathIds;
+    private int[] nodeOffsets;
+    private int[] nodeCounts;
+    private HashMap<Integer, Integer> levelSlots;
+
+    private String[] imageNames;
+    private HashMap<String, Integer> imageIds;
+    private int[] imageEncodings;
+    private int[] imageWidths;
+    private int[] imageHeights;
+    private int[] imageOffsets;
+    private int[] imageLengths;
+
+    /**
+     * Opens a level pack, mapping it into memory and reading its tables.
+     *
+     * @param packFile The level pack to open.
+     * @throws IOException If the pack could not be read, is not a level
+     * pack, or its tables point outside of it.
+     */
+    public LevelPack(File packFile) throws IOException {
+        this.packFile = packFile;
+		// The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(packFile.toPath(),
+            StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                channel.size());
+        }
+
+        ByteBuffer in = buffer.duplicate();
+        checkRemaining(in, HEADER_SIZE);
+        if (in.getInt() != MAGIC) {
+            throw new IOException(packFile + " is not a level pack");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException(packFile + " is level pack version "
+                + version + ", expected " + VERSION);
+        }
+        int levelCount = in.getInt();
+        int imageCount = in.getInt();
+		// Make sure the tables fit before allocating anything for them, so
+		// a corrupt count cannot ask for a huge array
+        if (levelCount < 0 || imageCount < 0) {
+            throw corrupt();
+        }
+        checkRemaining(in, (long) levelCount * LEVEL_ENTRY_SIZE
+            + (long) imageCount * MIN_IMAGE_ENTRY_SIZE);
+
+        levelNumbers = new int[levelCount];
+        backgroundIds = new int[levelCount];
+        pathIds = new int[levelCount];
+        nodeOffsets = new int[levelCount];
+        nodeCounts = new int[levelCount];
+        levelSlots = new HashMap<Integer, Integer>();
+        for (int i = 0; i < levelCount; i++) {
+            levelNumbers[i] = in.getInt();
+            backgroundIds[i] = in.getInt();
+            pathIds[i] = in.getInt();
+            nodeOffsets[i] = in.getInt();
+            nodeCounts[i] = in.getInt();
+            if (nodeCounts[i] < 0) {
+                throw corrupt();
+            }
+            checkRange(nodeOffsets[i], (long) nodeCounts[i] * NODE_SIZE);
+            checkImageId(backgroundIds[i], imageCount);
+            checkImageId(pathIds[i], imageCount);
+            levelSlots.put(levelNumbers[i], i);
+        }
+
+        imageNames = new String[imageCount];
+        imageEncodings = new int[imageCount];
+        imageWidths = new int[imageCount];
+        imageHeights = new int[imageCount];
+        imageOffsets = new int[imageCount];
+        imageLengths = new int[imageCount];
+        imageIds = new HashMap<String, Integer>();
+        for (int i = 0; i < imageCount; i++) {
+            checkRemaining(in, MIN_IMAGE_ENTRY_SIZE);
+            byte[] name = new byte[in.getShort() & 0xFFFF];
+            checkRemaining(in, name.length + MIN_IMAGE_ENTRY_SIZE - 2);
+            in.get(name);
+            imageNames[i] = new String(name, StandardCharsets.UTF_8);
+            imageEncodings[i] = in.getInt();
+            imageWidths[i] = in.getInt();
+            imageHeights[i] = in.getInt();
+            imageOffsets[i] = in.getInt();
+            imageLengths[i] = in.getInt();
+            if (imageWidths[i] < 0 || imageHeights[i] < 0
+                || imageLengths[i] < 0) {
+                throw corrupt();
+            }
+            checkRange(imageOffsets[i], imageLengths[i]);
+            if (imageEncodings[i] == ENCODING_ARGB && imageLengths[i]
+                != (long) imageWidths[i] * imageHeights[i] * 4) {
+                throw corrupt();
+            }
+            imageIds.put(imageNames[i], i);
+        }
+    }
+
+    /**
+     * Makes the exception thrown for a pack whose tables do not fit in it.
+     *
+     * @return The exception.
+     */
+    private IOException corrupt() {
+        return new IOException("Corrupt level pack " + packFile);
+    }
+
+    /**
+     * Checks that there are enough bytes left to read a table from.
+     *
+     * @param in The buffer being read.
+     * @param length How many bytes are about to be read.
+     * @throws IOException If there are not that many bytes left.
+     */
+    private void checkRemaining(ByteBuffer in, long length)
+        throws IOException {
+        if (length > in.remaining()) {
+            throw corrupt();
+        }
+    }
+
+    /**
+     * Checks that a run of bytes lies inside the pack.
+     *
+     * @param offset Where the run starts.
+     * @param length How long the run is.
+     * @throws IOException If the run does not fit in the pack.
+     */
+    private void checkRange(long offset, long length) throws IOException {
+        if (offset < 0 || offset + length > buffer.capacity()) {
+            throw corrupt();
+        }
+    }
+
+    /**
+     * Checks that an image id is either -1 or names an image in the pack.
+     *
+     * @param imageId The image id.
+     * @param imageCount How many images are in the pack.
+     * @throws IOException If the id is out of range.
+     */
+    private void checkImageId(int imageId, int imageCount)
+        throws IOException {
+        if (imageId < -1 || imageId >= imageCount) {
+            throw corrupt();
+        }
+    }
+
+    /**
+     * Returns how many levels are in the pack.
+     *
+     * @return How many levels are in the pack.
+     */
+    public int getLevelCount() {
+        return levelNumbers.length;
+    }
+
+    /**
+     * Returns the level number of a level in the pack.
+     *
+     * @param slot Where the level is in the pack's level table.
+     * @return The level number.
+     */
+    public int getLevelNumber(int slot) {
+        return levelNumbers[slot];
+    }
+
+    /**
+     * Returns the name of a level's background image.
+     *
+     * @param levelIndex The number of the level.
+     * @return The name of the background image, or null if it has none.
+     */
+    public String getBackgroundImageName(int levelIndex) {
+        return getImageName(backgroundIds[levelSlots.get(levelIndex)]);
+    }
+
+    /**
+     * Returns the name of a level's path image.
+     *
+     * @param levelIndex The number of the level.
+     * @return The name of the path image, or null if it has none.
+     */
+    public String getPathImageName(int levelIndex) {
+        return getImageName(pathIds[levelSlots.get(levelIndex)]);
+    }
+
+    /**
+     * Returns the shared image with the given name from the pack, decoding it
+     * the first time it is asked for.
+     *
+     * @param name The name of the image.
+     * @return The image, or null if it is not in the pack or could not be
+     * decoded.
+     */
+    public BufferedImage getImage(String name) {
+        final Integer imageId = imageIds.get(name);
+        if (imageId != null) {
+            return ImageCache.getInstance().getImage(name,
+                new Callable<BufferedImage>() {
+                    @Override
+                    public BufferedImage call() throws IOException {
+                        return decodeImage(imageId);
+                    }
+                });
+        }
+        System.out.println("ERROR: There is no image " + name + " in "
+            + packFile);
+        return null;
+    }
+
+    /**
+     * Reads the path nodes of a level out of the pack.
+     *
+     * @param levelIndex The number of the level.
+     * @return The path nodes, or null if the level has none.
+     */
+    public Vector<PathNode> readPathNodes(int levelIndex) {
+        int slot = levelSlots.get(levelIndex);
+        if (nodeCounts[slot] == 0) {
+            return null;
+        }
+        ByteBuffer in = buffer.duplicate();
+        in.position(nodeOffsets[slot]);
+        Vector<PathNode> nodes = new Vector<PathNode>(nodeCounts[slot]);
+        for (int i = 0; i < nodeCounts[slot]; i++) {
+            int x = in.getInt();
+            int y = in.getInt();
+            nodes.add(new PathNode(x, y));
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the name of an image.
+     *
+     * @param imageId The id of the image.
+     * @return The name of the image, or null if the id is -1.
+     */
+    private String getImageName(int imageId) {
+        return imageId >= 0 ? imageNames[imageId] : null;
+    }
+
+    /**
+     * Decodes an image out of the pack.
+     *
+     * @param imageId The id of the image.
+     * @return The decoded image.
+     * @throws IOException If the image could not be decoded.
+     */
+    private BufferedImage decodeImage(int imageId) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        in.position(imageOffsets[imageId]);
+        in.limit(imageOffsets[imageId] + imageLengths[imageId]);
+
+        if (imageEncodings[imageId] == ENCODING_ARGB) {
+            BufferedImage image = new BufferedImage(imageWidths[imageId],
+                imageHeights[imageId], BufferedImage.TYPE_INT_ARGB);
+            int[] pixels
+                = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            in.asIntBuffer().get(pixels);
+            return image;
+        } else if (imageEncodings[imageId] == ENCODING_PNG) {
+            BufferedImage image = ImageIO.read(new BufferInputStream(in));
+            if (image == null) {
+                throw new IOException("Unsupported image format");
+            }
+            return image;
+        }
+        throw new IOException("Unknown image encoding "
+            + imageEncodings[imageId]);
+    }
+
+    /**
+     * Private inner class to read bytes out of a buffer as a stream, so that
+     * stored PNG images can be handed straight to ImageIO.
+     */
+    private static class BufferInputStream extends InputStream {
+        private ByteBuffer in;
+
+        /**
+         * Constructs a new BufferInputStream.
+         *
+         * @param in The buffer to read, from its position to its limit.
+         */
+        public BufferInputStream(ByteBuffer in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads a single byte.
+         *
+         * @return The byte, or -1 at the end of the buffer.
+         */
+        @Override
+        public int read() {
+            return in.hasRemaining() ? in.get() & 0xFF : -1;
+        }
+
+        /**
+         * Reads bytes into an array.
+         *
+         * @param bytes The array to read into.
+         * @param offset Where in the array to start.
+         * @param length The most bytes to read.
+         * @return How many bytes were read, or -1 at the end of the buffer.
+         */
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!in.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, in.remaining());
+            in.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Vector;
+import javax.imageio.ImageIO;
+
+/**
+ * Tool to build a level pack out of a level file and the files it names.
+ * Every level in the level file goes into the pack along with its path nodes
+ * and images. An image used by more than one level is only stored once.
+ * Images are stored as decoded ARGB pixels unless asked to keep them as PNG.
+ * See LevelPack for the layout of the pack.
+ * <p>
+ * Usage: java LevelPackBuilder [levelFile] [packFile] [--png]
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class LevelPackBuilder {
+    private LevelCatalog catalog;
+    private boolean storePng;
+
+    private ArrayList<String> imageNames;
+    private HashMap<String, Integer> imageIds;
+
+    /**
+     * Constructs a new LevelPackBuilder.
+     *
+     * @param catalog The levels to put in the pack.
+     * @param storePng Whether to store images as PNG rather than as pixels.
+     */
+    public LevelPackBuilder(LevelCatalog catalog, boolean storePng) {
+        this.catalog = catalog;
+        this.storePng = storePng;
+        this.imageNames = new ArrayList<String>();
+        this.imageIds = new HashMap<String, Integer>();
+    }
+
+    /**
+     * Builds a level pack from the command line.
+     *
+     * @param args The level file, the pack file to write, and --png to store
+     * images as PNG.
+     */
+    public static void main(String[] args) {
+        String levelFile = "levels.cfg";
+        String packFile = "levels.pack";
+        boolean storePng = false;
+        int fileArgs = 0;
+        for (String arg : args) {
+            if (arg.equals("--png")) {
+                storePng = true;
+            } else if (fileArgs == 0) {
+                levelFile = arg;
+                fileArgs++;
+            } else {
+                packFile = arg;
+                fileArgs++;
+            }
+        }
+
+        LevelPackBuilder builder = new LevelPackBuilder(
+            new LevelCatalog(new File(levelFile)), storePng);
+        try {
+            builder.write(new File(packFile));
+        } catch (IOException e) {
+            System.out.println("ERROR: Could not build level pack "
+                + packFile);
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Wrote " + builder.catalog.getLevelCount()
+            + " levels and " + builder.imageNames.size() + " images to "
+            + packFile + " (" + new File(packFile).length() + " bytes)");
+    }
+
+    /**
+     * Writes the pack.
+     *
+     * @param packFile The file to write the pack to.
+     * @throws IOException If a level's files could not be read or the pack
+     * could not be written.
+     */
+    public void write(File packFile) throws IOException {
+        int[] levelNumbers = catalog.getLevelNumbers();
+        int levelCount = levelNumbers.length;
+
+		// Read everything in first, since the tables need to know how big
+		// all of the data is
+        ArrayList<Vector<PathNode>> levelNodes
+            = new ArrayList<Vector<PathNode>>();
+        int[] backgroundIds = new int[levelCount];
+        int[] pathIds = new int[levelCount];
+        for (int i = 0; i < levelCount; i++) {
+            LevelDescriptor level = catalog.getLevel(levelNumbers[i]);
+            backgroundIds[i] = addImage(level.getBackgroundImageFile());
+            pathIds[i] = addImage(level.getPathImageFile());
+            Vector<PathNode> nodes = null;
+            if (level.getPathNodeListFile() != null) {
+                nodes = LevelHelper.loadPathNodeList(
+                    level.getPathNodeListFile());
+                if (nodes == null) {
+                    throw new IOException("Could not read path node file "
+                        + level.getPathNodeListFile());
+                }
+            }
+            levelNodes.add(nodes);
+        }
+
+        int imageCount = imageNames.size();
+        byte[][] names = new byte[imageCount][];
+        int[] encodings = new int[imageCount];
+        int[] widths = new int[imageCount];
+        int[] heights = new int[imageCount];
+        byte[][] imageData = new byte[imageCount][];
+        for (int i = 0; i < imageCount; i++) {
+            names[i] = imageNames.get(i).getBytes(StandardCharsets.UTF_8);
+            File imageFile = new File(imageNames.get(i));
+            BufferedImage image = ImageIO.read(imageFile);
+            if (image == null) {
+                throw new IOException("Could not read image "
+                    + imageNames.get(i));
+            }
+            widths[i] = image.getWidth();
+            heights[i] = image.getHeight();
+            if (storePng) {
+                encodings[i] = LevelPack.ENCODING_PNG;
+                imageData[i] = Files.readAllBytes(imageFile.toPath());
+            } else {
+                encodings[i] = LevelPack.ENCODING_ARGB;
+                imageData[i] = toArgbBytes(image);
+            }
+        }
+
+		// Lay out the data after the tables, keeping images on 8 byte
+		// boundaries
+        int offset = 16 + levelCount * 20;
+        for (int i = 0; i < imageCount; i++) {
+            offset += 2 + names[i].length + 20;
+        }
+        int[] nodeOffsets = new int[levelCount];
+        int[] nodeCounts = new int[levelCount];
+        for (int i = 0; i < levelCount; i++) {
+            nodeOffsets[i] = offset;
+            nodeCounts[i] = levelNodes.get(i) != null
+                ? levelNodes.get(i).size() : 0;
+            offset += nodeCounts[i] * 8;
+        }
+        int[] imageOffsets = new int[imageCount];
+        for (int i = 0; i < imageCount; i++) {
+            offset = (offset + 7) & ~7;
+            imageOffsets[i] = offset;
+            offset += imageData[i].length;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(packFile)))) {
+            out.writeInt(LevelPack.MAGIC);
+            out.writeInt(LevelPack.VERSION);
+            out.writeInt(levelCount);
+            out.writeInt(imageCount);
+
+            for (int i = 0; i < levelCount; i++) {
+                out.writeInt(levelNumbers[i]);
+                out.writeInt(backgroundIds[i]);
+                out.writeInt(pathIds[i]);
+                out.writeInt(nodeOffsets[i]);
+                out.writeInt(nodeCounts[i]);
+            }
+
+            for (int i = 0; i < imageCount; i++) {
+                out.writeShort(names[i].length);
+                out.write(names[i]);
+                out.writeInt(encodings[i]);
+                out.writeInt(widths[i]);
+                out.writeInt(heights[i]);
+                out.writeInt(imageOffsets[i]);
+                out.writeInt(imageData[i].length);
+            }
+
+            for (int i = 0; i < levelCount; i++) {
+                if (levelNodes.get(i) != null) {
+                    for (PathNode node : levelNodes.get(i)) {
+                        out.writeInt(node.getX());
+                        out.writeInt(node.getY());
+                    }
+                }
+            }
+
+            for (int i = 0; i < imageCount; i++) {
+                while (out.size() < imageOffsets[i]) {
+                    out.writeByte(0);
+                }
+                out.write(imageData[i]);
+            }
+        }
+    }
+
+    /**
+     * Gives an image an id in the pack, reusing the id if it is already in
+     * the pack.
+     *
+     * @param fileName The image file, or null.
+     * @return The id of the image, or -1 if there is no image.
+     */
+    private int addImage(String fileName) {
+        if (fileName == null) {
+            return -1;
+        }
+        Integer id = imageIds.get(fileName);
+        if (id == null) {
+            id = imageNames.size();
+            imageNames.add(fileName);
+            imageIds.put(fileName, id);
+        }
+        return id;
+    }
+
+    /**
+     * Converts an image to big endian ARGB pixels, one int per pixel.
+     *
+     * @param image The image to convert.
+     * @return The pixels of the image as bytes.
+     */
+    private static byte[] toArgbBytes(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        byte[] bytes = new byte[pixels.length * 4];
+        for (int i = 0; i < pixels.length; i++) {
+            bytes[i * 4] = (byte) (pixels[i] >>> 24);
+            bytes[i * 4 + 1] = (byte) (pixels[i] >>> 16);
+            bytes[i * 4 + 2] = (byte) (pixels[i] >>> 8);
+            bytes[i * 4 + 3] = (byte) pixels[i];
+        }
+        return bytes;
+    }
+}
@@ -1,7 +1,4 @@
 import java.awt.Color;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
 
 /**
  * Class to represent a mega tower. These towers fire green lasers, do a TON
@@ -33,11 +30,6 @@ public class MegaTower extends Tower {
 
         laserColor = new Color(0, 255, 0);
 
-        try {
-            myImage = ImageIO.read(new File("megaTower.png"));
-        } catch (IOException e) {
-            System.out.println("ERROR: Could not read tower image");
-            System.out.println(e.getMessage());
-        }
+        myImage = ImageCache.getInstance().getImage("megaTower.png");
     }
 }
@@ -1,22 +1,35 @@
-import java.util.Vector;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Singleton class implementation for the message queue. Handles storing all
  * game messages. Works simply as a message queue, has no dispatch system. All
  * classes that need to handle messages should get an instance of this and
  * retrieve messages from it.
+ * Every recipient gets its own bounded, lock-free MessageRing, so pushing and
+ * popping are constant time and a slow consumer never blocks anybody else's
+ * messages. Each recipient's messages must only be taken out by one thread.
  *
  * @author Zachary Peterson
  * @version 1.0
  */
 public class MessageQueue {
-    private Vector<Message> myMessages;
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    private MessageRing[] rings;
+    private volatile Thread[] consumers;
     private static MessageQueue instance = new MessageQueue();
 
     private MessageQueue() {
         // Private constructor, this should never be called
         // Clients should instead use get instance
-        myMessages = new Vector<Message>();
+        int capacity = Integer.getInteger("towerdefense.messageCapacity",
+            DEFAULT_CAPACITY);
+        MessageRecipient[] recipients = MessageRecipient.values();
+        rings = new MessageRing[recipients.length];
+        for (int i = 0; i < recipients.length; i++) {
+            rings[i] = new MessageRing(capacity);
+        }
+        consumers = new Thread[recipients.length];
     }
 
     /**
@@ -30,15 +43,52 @@ public class MessageQueue {
 
     /**
      * Pushes a messages onto the queue.
+     * If the recipient's queue is full the message is dropped and counted as
+     * an overflow; use offer to find out whether that happened.
      *
      * @param messageToPush The message to add to the queue.
      */
-    public void push(Message messageToPush) {
-        synchronized (myMessages) {
-            if (messageToPush != null) {
-                myMessages.add(messageToPush);
-            }
+    public void push(Message<?> messageToPush) {
+        offer(messageToPush);
+    }
+
+    /**
+     * Pushes a message onto the queue if its recipient has room for it.
+     *
+     * @param messageToPush The message to add to the queue.
+     * @return True if the message was queued, false if it was dropped.
+     */
+    public boolean offer(Message<?> messageToPush) {
+        if (messageToPush == null) {
+            return false;
+        }
+        int recipient = messageToPush.getMessageRecipient().ordinal();
+        boolean queued = rings[recipient].offer(messageToPush);
+        if (!queued && rings[recipient].getOverflowCount() == 1) {
+            System.out.println("ERROR: Message queue for "
+                + messageToPush.getMessageRecipient()
+                + " is full, dropping messages");
         }
+        Thread consumer = consumers[recipient];
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return queued;
+    }
+
+    /**
+     * Registers the thread that consumes messages for a given recipient.
+     * The thread is woken up whenever a message is pushed for that recipient
+     * so that it can park while it has nothing else to do.
+     *
+     * @param recipient The recipient the thread consumes messages for.
+     * @param consumer The thread to wake up, or null to stop waking one.
+     */
+    public synchronized void registerConsumer(MessageRecipient recipient,
+        Thread consumer) {
+        Thread[] newConsumers = consumers.clone();
+        newConsumers[recipient.ordinal()] = consumer;
+        consumers = newConsumers;
     }
 
     /**
@@ -47,16 +97,8 @@ public class MessageQueue {
      * @param intendedRecipient The intended recipient to check for.
      * @return The oldest message with the given recipient.
      */
-    public Message pop(MessageRecipient intendedRecipient) {
-        synchronized (myMessages) {
-            for (int i = 0; i < myMessages.size(); i++) {
-                if (myMessages.get(i).getMessageRecipient()
-                    == intendedRecipient) {
-                    return myMessages.remove(i);
-                }
-            }
-            return null;
-        }
+    public Message<?> pop(MessageRecipient intendedRecipient) {
+        return rings[intendedRecipient.ordinal()].poll();
     }
 
     /**
@@ -65,16 +107,40 @@ public class MessageQueue {
      * @param intendedRecipient The intended recipient to check for.
      * @return The oldest message with the given recipient.
      */
-    public Message peek(MessageRecipient intendedRecipient) {
-        synchronized (myMessages) {
-            for (int i = 0; i < myMessages.size(); i++) {
-                if (myMessages.get(i) != null
-                    && myMessages.get(i).getMessageRecipient()
-                    == intendedRecipient) {
-                    return myMessages.get(i);
-                }
-            }
-            return null;
-        }
+    public Message<?> peek(MessageRecipient intendedRecipient) {
+        return rings[intendedRecipient.ordinal()].peek();
+    }
+
+    /**
+     * Retrieves up to batch.length of the oldest messages with a given
+     * recipient at once.
+     *
+     * @param intendedRecipient The intended recipient to check for.
+     * @param batch The array to put the messages in, oldest first.
+     * @return How many messages were retrieved.
+     */
+    public int drainTo(MessageRecipient intendedRecipient, Message<?>[] batch) {
+        return rings[intendedRecipient.ordinal()].drainTo(batch);
+    }
+
+    /**
+     * Returns roughly how many messages are waiting for a given recipient.
+     *
+     * @param intendedRecipient The recipient to check for.
+     * @return Roughly how many messages are waiting.
+     */
+    public int size(MessageRecipient intendedRecipient) {
+        return rings[intendedRecipient.ordinal()].size();
+    }
+
+    /**
+     * Returns how many messages for a given recipient have been dropped
+     * because its queue was full.
+     *
+     * @param intendedRecipient The recipient to check for.
+     * @return How many messages have been dropped.
+     */
+    public long getOverflowCount(MessageRecipient intendedRecipient) {
+        return rings[intendedRecipient.ordinal()].getOverflowCount();
     }
 }
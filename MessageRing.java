@@ -0,0 +1,96 @@
+/**
+ * Class to represent a bounded, lock-free queue of messages for a single
+ * recipient.
+ * Any number of threads may offer messages at once, but only one thread may
+ * take them out. See SequenceRing for how the slots are handed between them.
+ * When the ring is full, offers fail instead of waiting and are counted as
+ * overflows.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class MessageRing extends SequenceRing {
+    private Message<?>[] buffer;
+
+    /**
+     * Constructs a new MessageRing able to hold at least the given number of
+     * messages. The capacity is rounded up to a power of two.
+     *
+     * @param minimumCapacity The least number of messages the ring can hold.
+     */
+    public MessageRing(int minimumCapacity) {
+        super(minimumCapacity);
+        buffer = new Message<?>[getCapacity()];
+    }
+
+    /**
+     * Adds a message to the ring if there is room for it. Safe to call from
+     * any number of threads.
+     *
+     * @param message The message to add.
+     * @return True if the message was added, false if the ring was full.
+     */
+    public boolean offer(Message<?> message) {
+        long position = claim();
+        if (position < 0) {
+            return false;
+        }
+        buffer[getSlot(position)] = message;
+        publish(position);
+        return true;
+    }
+
+    /**
+     * Looks at the oldest message without removing it. Must only be called
+     * from the consuming thread.
+     *
+     * @return The oldest message, or null if the ring is empty.
+     */
+    public Message<?> peek() {
+        int index = peekSlot(0);
+        return index < 0 ? null : buffer[index];
+    }
+
+    /**
+     * Removes and returns the oldest message. Must only be called from the
+     * consuming thread.
+     *
+     * @return The oldest message, or null if the ring is empty.
+     */
+    public Message<?> poll() {
+        int index = peekSlot(0);
+        if (index < 0) {
+            return null;
+        }
+        Message<?> message = buffer[index];
+        release(1);
+        return message;
+    }
+
+    /**
+     * Removes up to batch.length of the oldest messages into a batch array.
+     * Must only be called from the consuming thread.
+     *
+     * @param batch The array to drain messages into, oldest first.
+     * @return How many messages were drained.
+     */
+    public int drainTo(Message<?>[] batch) {
+        int count = 0;
+        int index;
+        while (count < batch.length && (index = peekSlot(count)) >= 0) {
+            batch[count++] = buffer[index];
+        }
+        release(count);
+        return count;
+    }
+
+    /**
+     * Lets go of the message in a slot that is being freed.
+     *
+     * @param index The slot being freed.
+     */
+    @Override
+    protected void clearSlot(int index) {
+        buffer[index] = null;
+    }
+}
@@ -8,10 +8,11 @@
 public enum MessageType {
     UPDATE_SCORE, UPDATE_HEALTH, UPDATE_MONEY, PLACE_BASIC_TOWER,
     PLACE_FAST_TOWER, QUIT_GAME, DEAL_DAMAGE, ADD_SCORE, ADD_MONEY, SPAWN_WAVE,
-    SPAWN_MONSTER, SPAWN_BASIC_TOWER, SPAWN_FAST_TOWER, ENABLE_SPAWN_BUTTON,
+    SPAWN_BASIC_TOWER, SPAWN_FAST_TOWER, ENABLE_SPAWN_BUTTON,
     DISABLE_SPAWN_BUTTON, UPDATE_MONSTER_COUNT, UPDATE_CURRENT_WAVE, END_GAME,
     START_GAME, PLACE_MEGA_TOWER, SPAWN_MEGA_TOWER, CHANGE_LEVEL, OPEN_MENU,
-    OPEN_GAME
+    OPEN_GAME, GAME_CLICKED, SET_TIME_SCALE, UPDATE_TIME_SCALE,
+    TOGGLE_PAUSE, UPDATE_PAUSED
 }
 
 
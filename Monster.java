@@ -1,26 +1,24 @@
-import java.awt.Graphics;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
-
 /**
  * Class to represent a basic monster in the game.
  * All other monster types are derived from this base class.
  * Monsters follow a predefined path, take damage from towers, and do a certain
  * amount of damage to the player if they go off the left side of the screen.
+ * A Monster only describes the stats a monster spawns with for a given wave;
+ * the live monsters themselves are kept in a MonsterStore, so one Monster is
+ * enough to spawn a whole wave.
  *
  * @author Zachary Peterson
  * @version 1.0
  */
 public class Monster {
-    protected Sprite mySprite;
-    private double x, y;
+    public static final int MONSTER_TYPE = 0;
+    public static final int TANK_TYPE = 1;
+
+    protected int typeId;
+    protected SpriteSheet mySheet;
+    protected int framesPerSecond;
     protected double speed;
-    private int nodeIndex;
-    private double nodeArrivalDistance;
     protected double health;
-    private boolean alive;
     protected int damage;
     protected int pointValue;
     protected int moneyValue;
@@ -31,231 +29,88 @@ public class Monster {
      * @param currentWave The current monster wave.
      */
     public Monster(int currentWave) {
-        PathNode startingNode = PathNodeList.getInstance().getNode(0);
-
-        if (startingNode != null) {
-            nodeIndex = 0;
-            x = startingNode.getX();
-            y = startingNode.getY();
-        } else {
-            System.out.println("ERROR: Could not get starting pathnode for"
-                   + " monster");
-        }
-
 		// Set up the base attributes for the monster
-        nodeArrivalDistance = 2.0;
+        typeId = MONSTER_TYPE;
         speed = 40.0 +  2.0 * currentWave;
         health = 50.0 + 4.0 * currentWave;
-        alive = true;
         damage = 20;
         pointValue = 100;
         moneyValue = 20;
 
-		// Try and load the image for the monster
-        try {
-            BufferedImage spriteImage = ImageIO.read(new File("monster.png"));
-            mySprite = new Sprite(spriteImage, 2, 1, 4);
-        } catch (IOException e) {
-            System.out.println("ERROR: Could not read image for monster");
-            System.out.println(e.getMessage());
-        }
-    }
-
-    /**
-     * Returns whether the monster is currently alive or not.
-     *
-     * @return Whether the monster is currently alive or not.
-     */
-    public boolean isAlive() {
-        return alive;
+		// Use the shared, pre-rendered frames for the monster
+        mySheet = SpriteSheet.getSheet("monster.png", 2, 1);
+        framesPerSecond = 4;
     }
 
     /**
-     * Returns the current x position of the monster.
+     * Returns the type id the monster store files this monster under.
      *
-     * @return The current x position of the monster.
+     * @return The type id of this monster.
      */
-    public double getX() {
-        return x;
+    public int getTypeId() {
+        return typeId;
     }
 
     /**
-     * Returns the current y position of the monster.
+     * Returns the sprite sheet for this monster.
      *
-     * @return The current y position of the monster.
+     * @return The sprite sheet for this monster.
      */
-    public double getY() {
-        return y;
+    public SpriteSheet getSheet() {
+        return mySheet;
     }
 
     /**
-     * Returns the width of the monster's image.
-     * Takes into account transformations for the sprite.
+     * Returns the animation frame rate for this monster.
      *
-     * @return The width of the monster's image.
+     * @return The animation frame rate for this monster.
      */
-    public int getWidth() {
-        return mySprite.getImage().getWidth();
+    public int getFramesPerSecond() {
+        return framesPerSecond;
     }
 
     /**
-     * Returns the height of the monster's image.
-     * Takes into account transformations for the sprite.
+     * Returns the speed this monster moves at.
      *
-     * @return The height of the monster's image.
+     * @return The speed this monster moves at.
      */
-    public int getHeight() {
-        return mySprite.getImage().getHeight();
+    public double getSpeed() {
+        return speed;
     }
 
     /**
-     * Deals damage to the monster. If the damage killed the monster, then the
-     * method returns true so that the killing tower can add a kill to its
-     * score.
+     * Returns the health this monster spawns with.
      *
-     * @param damage The damage to deal to the monster.
-     * @return Whether or not the damage taken killed the monster.
+     * @return The health this monster spawns with.
      */
-    public boolean takeDamage(double damage) {
-        if (alive && health > 0) {
-            health -= damage;
-            if (health <= 0) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Main update for the monster. Handles all position changing, health
-     * checking and other fun stuff.
-     *
-     * @param dt The time differential since the last frame.
-     */
-    public void update(double dt) {
-        if (x + mySprite.getImage().getWidth() < 0) {
-            MessageQueue.getInstance().push(
-                new Message<Integer>(MessageRecipient.GAME_PANEL,
-                MessageType.DEAL_DAMAGE, damage));
-            alive = false;
-        }
-		// If the monster's health has dropped to 0 or below, then the monster
-		// is no longer alive and we need to add score and money to the player
-        if (health <= 0) {
-            alive = false;
-            MessageQueue.getInstance().push(
-                new Message<Integer>(MessageRecipient.GAME_PANEL,
-                MessageType.ADD_SCORE, pointValue));
-            MessageQueue.getInstance().push(
-                new Message<Integer>(MessageRecipient.GAME_PANEL,
-                MessageType.ADD_MONEY, moneyValue));
-        }
-		// Otherwise, update the monster
-        if (alive) {
-			// Get the pathnode we should be moving towards
-            PathNode currentNode
-                = PathNodeList.getInstance().getNode(nodeIndex);
-			// Make sure we actually have a node to move to
-            if (currentNode != null) {
-				// Get the distance to it
-                double distanceToNode
-                    = Math.sqrt(Math.pow(currentNode.getX() - x, 2)
-                        + Math.pow(currentNode.getY() - y, 2));
-				// If Check to see if we have arrived at it
-                if (distanceToNode <= nodeArrivalDistance) {
-					// If we have, then check to see if we have another node
-                    nodeIndex++;
-                    currentNode = PathNodeList.getInstance().getNode(nodeIndex);
-                    if (currentNode != null) {
-						// If we do, then get the distance to the next node
-                        distanceToNode =
-                            Math.sqrt(Math.pow(currentNode.getX() - x, 2)
-                                + Math.pow(currentNode.getY() - y, 2));
-                    } else {
-						// Otherwise, we have reached the end, so move the
-						// monster off the screen and set it so it's not alive
-                        x = -1000;
-                        y = -1000;
-                        alive = false;
-                    }
-                }
-				// As long as we have a node, move towards it
-                if (currentNode != null) {
-                    double directionX
-                        = (currentNode.getX() - x) / distanceToNode;
-                    double directionY
-                        = (currentNode.getY() - y) / distanceToNode;
-                    x += (directionX * speed * dt);
-                    y += (directionY * speed * dt);
-                }
-            } else {
-				// If we are no longer alive, then move the monster off of the
-				// screen
-                x = -1000;
-                y = -1000;
-                alive = false;
-            }
-        }
-
-		// Set the rotation and update the sprite
-        double directionX
-            = PathNodeList.getInstance().getNode(nodeIndex).getX() - x;
-        double directionY
-            = PathNodeList.getInstance().getNode(nodeIndex).getY() - y;
-
-        double rotation = Math.atan(directionY / directionX);
-
-        if (directionX < 0) {
-            rotation += Math.PI;
-        } else if (directionY < 0) {
-            rotation += Math.PI * 2;
-        }
-        mySprite.setRotation(rotation);
-        mySprite.update(dt);
-        mySprite.setPosition((int) x, (int) y);
+    public double getHealth() {
+        return health;
     }
 
     /**
-     * Renders the monster.
+     * Returns the damage this monster does to the player.
      *
-     * @param g The current Graphics to draw with.
+     * @return The damage this monster does to the player.
      */
-    public void render(Graphics g) {
-        mySprite.render(g);
+    public int getDamage() {
+        return damage;
     }
 
     /**
-     * Returns whether this monster equals the other monster.
-     * Implemented for use in the monster storage Vectors.
+     * Returns the score the player gets for killing this monster.
      *
-     * @param obj The other object to check for equality.
-     * @return True if this monster equals the other.
+     * @return The score for killing this monster.
      */
-    @Override
-    public boolean equals(Object obj) {
-        if (this == obj) {
-            return true;
-        }
-        if (!(obj instanceof Monster)) {
-            return false;
-        }
-        return (((Monster) obj).x == x
-            && ((Monster) obj).y == y
-            && ((Monster) obj).speed == speed
-            && ((Monster) obj).nodeIndex == nodeIndex
-            && ((Monster) obj).nodeArrivalDistance == nodeArrivalDistance
-            && ((Monster) obj).health == health
-            && ((Monster) obj).alive == alive);
+    public int getPointValue() {
+        return pointValue;
     }
 
     /**
-     * Returns the hashcode for this object.
+     * Returns the money the player gets for killing this monster.
      *
-     * @Return The hashcode for this object.
+     * @return The money for killing this monster.
      */
-    @Override
-    public int hashCode() {
-        return (int) (x + 2 * y + 3 * speed + 4 * nodeIndex
-            + 5 * nodeArrivalDistance + 6 * health + 7 * ((alive) ? 1 : 0));
+    public int getMoneyValue() {
+        return moneyValue;
     }
 }
@@ -0,0 +1,287 @@
+import java.util.Arrays;
+
+/**
+ * Class to hold a uniform grid of monster centers for quick range queries.
+ * The grid is rebuilt once per tick from the monster store, after which a tower
+ * only has to look at the monsters in the cells its range covers instead of
+ * every monster on the level. Monsters outside of the grid's area are kept in
+ * the nearest edge cell, so queries are still exact for them.
+ * Instead of the grid, the monsters can be checked by brute force with a
+ * range kernel, chosen with the towerdefense.targeting system property: grid
+ * (the default), scalar for a plain loop, or vector for the SIMD kernel. The
+ * kernels need no index at all, just the monster centers packed into float
+ * arrays, and every monster they find is checked again exactly, so all three
+ * always pick the same target.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class MonsterGrid {
+    private int cellSize;
+    private int columns;
+    private int rows;
+    private int[] cellStart;
+    private int[] cellCursor;
+    private int[] cellMonsters;
+    private int[] monsterCells;
+    private int[] handles;
+    private double[] centerX;
+    private double[] centerY;
+    private int monsterCount;
+
+    private RangeKernel kernel;
+    private float[] packedX;
+    private float[] packedY;
+    private int[] candidates;
+
+    /**
+     * Constructs a new MonsterGrid covering the given area, reading how to
+     * check ranges from the towerdefense.targeting system property.
+     *
+     * @param width The width of the area to cover.
+     * @param height The height of the area to cover.
+     * @param cellSize The width and height of each grid cell.
+     */
+    public MonsterGrid(int width, int height, int cellSize) {
+        this(width, height, cellSize, createKernel(
+            System.getProperty("towerdefense.targeting", "grid")));
+    }
+
+    /**
+     * Constructs a new MonsterGrid covering the given area.
+     *
+     * @param width The width of the area to cover.
+     * @param height The height of the area to cover.
+     * @param cellSize The width and height of each grid cell.
+     * @param kernel The kernel to check ranges by brute force with, or null
+     * to use the grid.
+     */
+    public MonsterGrid(int width, int height, int cellSize,
+        RangeKernel kernel) {
+        this.kernel = kernel;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.cellStart = new int[columns * rows + 1];
+        this.cellCursor = new int[columns * rows];
+        this.cellMonsters = new int[16];
+        this.monsterCells = new int[16];
+        this.handles = new int[16];
+        this.centerX = new double[16];
+        this.centerY = new double[16];
+        this.monsterCount = 0;
+        this.packedX = new float[16];
+        this.packedY = new float[16];
+        this.candidates = new int[16];
+    }
+
+    /**
+     * Creates the range kernel with the given name. The vector kernel is
+     * compiled separately and needs the jdk.incubator.vector module, so if it
+     * cannot be loaded the scalar kernel is used instead.
+     *
+     * @param targeting The name of the kernel: grid, scalar or vector.
+     * @return The kernel, or null for grid.
+     */
+    public static RangeKernel createKernel(String targeting) {
+        if (targeting.equals("scalar")) {
+            return new ScalarRangeKernel();
+        } else if (targeting.equals("vector")) {
+            try {
+                return (RangeKernel) Class.forName("VectorRangeKernel")
+                    .getConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.out.println("ERROR: Could not load the vector range"
+                    + " kernel, using the scalar kernel instead");
+                System.out.println(e);
+                return new ScalarRangeKernel();
+            }
+        } else if (!targeting.equals("grid")) {
+            System.out.println("ERROR: Unknown targeting " + targeting
+                + ", using the grid instead");
+        }
+        return null;
+    }
+
+    /**
+     * Returns the x coordinate of a monster's center as of the last rebuild.
+     *
+     * @param index The index of the monster in the monster store.
+     * @return The x coordinate of the monster's center.
+     */
+    public double getCenterX(int index) {
+        return centerX[index];
+    }
+
+    /**
+     * Returns the y coordinate of a monster's center as of the last rebuild.
+     *
+     * @param index The index of the monster in the monster store.
+     * @return The y coordinate of the monster's center.
+     */
+    public double getCenterY(int index) {
+        return centerY[index];
+    }
+
+    /**
+     * Rebuilds the grid from the current monster positions.
+     * Monsters are bucketed with a counting sort, and each monster's handle
+     * is kept alongside it so queries can tell which monster spawned first.
+     *
+     * @param monsters All of the monsters on the level.
+     */
+    public void rebuild(MonsterStore monsters) {
+        monsterCount = monsters.size();
+        if (centerX.length < monsterCount) {
+            int newLength = Math.max(monsterCount, centerX.length * 2);
+            cellMonsters = new int[newLength];
+            monsterCells = new int[newLength];
+            handles = new int[newLength];
+            centerX = new double[newLength];
+            centerY = new double[newLength];
+            packedX = new float[newLength];
+            packedY = new float[newLength];
+            candidates = new int[newLength];
+        }
+
+        if (kernel != null) {
+            for (int i = 0; i < monsterCount; i++) {
+                centerX[i] = monsters.getX(i) + monsters.getWidth(i) / 2;
+                centerY[i] = monsters.getY(i) + monsters.getHeight(i) / 2;
+                packedX[i] = (float) centerX[i];
+                packedY[i] = (float) centerY[i];
+                handles[i] = monsters.getHandle(i);
+            }
+            return;
+        }
+
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < monsterCount; i++) {
+            centerX[i] = monsters.getX(i) + monsters.getWidth(i) / 2;
+            centerY[i] = monsters.getY(i) + monsters.getHeight(i) / 2;
+            int cell = cellOf(centerX[i], centerY[i]);
+            monsterCells[i] = cell;
+            handles[i] = monsters.getHandle(i);
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        System.arraycopy(cellStart, 0, cellCursor, 0, cellCursor.length);
+        for (int i = 0; i < monsterCount; i++) {
+            cellMonsters[cellCursor[monsterCells[i]]++] = i;
+        }
+    }
+
+    /**
+     * Finds the first monster to have spawned whose center is within the
+     * given range of a point.
+     *
+     * @param x The x coordinate of the point to search around.
+     * @param y The y coordinate of the point to search around.
+     * @param range The range to search within.
+     * @return The index of the monster in the monster store, or -1 if no
+     * monster is in range.
+     */
+    public int findFirstInRange(double x, double y, double range) {
+        double rangeSquared = range * range;
+        if (kernel != null) {
+            return findFirstWithKernel(x, y, range);
+        }
+        int minColumn = clampColumn(x - range);
+        int maxColumn = clampColumn(x + range);
+        int minRow = clampRow(y - range);
+        int maxRow = clampRow(y + range);
+
+        int found = -1;
+        int foundHandle = Integer.MAX_VALUE;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = row * columns + column;
+                for (int j = cellStart[cell]; j < cellStart[cell + 1]; j++) {
+                    int index = cellMonsters[j];
+					// Only a monster that spawned earlier can beat what we
+					// already have
+                    if (handles[index] >= foundHandle) {
+                        continue;
+                    }
+                    double dx = centerX[index] - x;
+                    double dy = centerY[index] - y;
+                    if (dx * dx + dy * dy <= rangeSquared) {
+                        found = index;
+                        foundHandle = handles[index];
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the first monster to have spawned within range of a point by
+     * checking every monster with the range kernel. The kernel works in
+     * floats, so it is given a range one pixel wider than asked for and its
+     * candidates are checked again in doubles.
+     *
+     * @param x The x coordinate of the point to search around.
+     * @param y The y coordinate of the point to search around.
+     * @param range The range to search within.
+     * @return The index of the monster in the monster store, or -1 if no
+     * monster is in range.
+     */
+    private int findFirstWithKernel(double x, double y, double range) {
+        double rangeSquared = range * range;
+        float paddedRange = (float) (range + 1.0);
+        int count = kernel.findCandidates(packedX, packedY, monsterCount,
+            (float) x, (float) y, paddedRange * paddedRange, candidates);
+
+        int found = -1;
+        int foundHandle = Integer.MAX_VALUE;
+        for (int j = 0; j < count; j++) {
+            int index = candidates[j];
+            if (handles[index] >= foundHandle) {
+                continue;
+            }
+            double dx = centerX[index] - x;
+            double dy = centerY[index] - y;
+            if (dx * dx + dy * dy <= rangeSquared) {
+                found = index;
+                foundHandle = handles[index];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the cell a point falls in, clamped to the grid.
+     *
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @return The index of the cell the point falls in.
+     */
+    private int cellOf(double x, double y) {
+        return clampRow(y) * columns + clampColumn(x);
+    }
+
+    /**
+     * Returns the grid column an x coordinate falls in, clamped to the grid.
+     *
+     * @param x The x coordinate.
+     * @return The grid column.
+     */
+    private int clampColumn(double x) {
+        int column = (int) Math.floor(x / cellSize);
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    /**
+     * Returns the grid row a y coordinate falls in, clamped to the grid.
+     *
+     * @param y The y coordinate.
+     * @return The grid row.
+     */
+    private int clampRow(double y) {
+        int row = (int) Math.floor(y / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+}
@@ -0,0 +1,569 @@
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Class to hold every live monster on the level as parallel arrays.
+ * Rather than one object per monster, each stat is its own primitive column
+ * indexed by slot, so the per-tick movement and damage passes are tight loops
+ * over plain arrays. Slots are kept packed by moving the last monster into the
+ * slot of a dead one, which means a monster's slot can change whenever
+ * another monster dies; anything that needs to keep track of a particular
+ * monster across ticks should hold on to its handle instead. Handles are
+ * handed out in spawn order, so they can also be used to find the oldest of
+ * several monsters. Handles are only good for as long as their monster is
+ * in the store: once every monster has been removed, handles start again
+ * from 0, so the handle table never grows past what one wave needs.
+ * Monsters keep track of where they are by how far along the path they have
+ * travelled, and their positions are looked up from the level's PathTable.
+ * The width and height of each monster's current frame are kept in columns
+ * too, and only looked up from its sprite sheet when the frame changes.
+ * Monsters that die or get through are noted down during the update and
+ * their events sent once it is done, so the update itself never leaves the
+ * arrays. The dead monsters are then taken out by removeDead, which has to
+ * be called once after every update.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class MonsterStore {
+    private static final int TYPE_COUNT = 2;
+    private static final int LEAKED = 1;
+    private static final int KILLED = 2;
+
+    private int size;
+    private double[] x;
+    private double[] y;
+    private double[] speed;
+    private double[] health;
+    private double[] distance;
+    private int[] segment;
+    private int[] typeId;
+    private int[] damage;
+    private int[] pointValue;
+    private int[] moneyValue;
+    private boolean[] alive;
+    private double[] rotation;
+    private int[] rotationBucket;
+    private int[] frameCell;
+    private double[] frameTime;
+    private int[] width;
+    private int[] height;
+    private int[] handleOfSlot;
+
+    private int[] slotOfHandle;
+    private int nextHandle;
+
+    private int[] deadSlots;
+    private int[] deadCauses;
+    private int deadCount;
+
+    private SpriteSheet[] sheetOfType;
+    private double[] timePerFrameOfType;
+
+    private PathTable path;
+
+    /**
+     * Constructs a new, empty MonsterStore.
+     */
+    public MonsterStore() {
+        size = 0;
+        allocate(64);
+        slotOfHandle = new int[64];
+        nextHandle = 0;
+        deadCount = 0;
+        sheetOfType = new SpriteSheet[TYPE_COUNT];
+        timePerFrameOfType = new double[TYPE_COUNT];
+        path = new PathTable(null);
+    }
+
+    /**
+     * Grows every column to the given capacity, keeping what is in them.
+     *
+     * @param capacity The new capacity of the columns.
+     */
+    private void allocate(int capacity) {
+        if (x == null) {
+            x = new double[capacity];
+            y = new double[capacity];
+            speed = new double[capacity];
+            health = new double[capacity];
+            distance = new double[capacity];
+            segment = new int[capacity];
+            typeId = new int[capacity];
+            damage = new int[capacity];
+            pointValue = new int[capacity];
+            moneyValue = new int[capacity];
+            alive = new boolean[capacity];
+            rotation = new double[capacity];
+            rotationBucket = new int[capacity];
+            frameCell = new int[capacity];
+            frameTime = new double[capacity];
+            width = new int[capacity];
+            height = new int[capacity];
+            handleOfSlot = new int[capacity];
+            deadSlots = new int[capacity];
+            deadCauses = new int[capacity];
+        } else {
+            deadSlots = Arrays.copyOf(deadSlots, capacity);
+            deadCauses = Arrays.copyOf(deadCauses, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            health = Arrays.copyOf(health, capacity);
+            distance = Arrays.copyOf(distance, capacity);
+            segment = Arrays.copyOf(segment, capacity);
+            typeId = Arrays.copyOf(typeId, capacity);
+            damage = Arrays.copyOf(damage, capacity);
+            pointValue = Arrays.copyOf(pointValue, capacity);
+            moneyValue = Arrays.copyOf(moneyValue, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            rotation = Arrays.copyOf(rotation, capacity);
+            rotationBucket = Arrays.copyOf(rotationBucket, capacity);
+            frameCell = Arrays.copyOf(frameCell, capacity);
+            frameTime = Arrays.copyOf(frameTime, capacity);
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            handleOfSlot = Arrays.copyOf(handleOfSlot, capacity);
+        }
+    }
+
+    /**
+     * Sets the path monsters follow.
+     *
+     * @param path The path for monsters to follow.
+     */
+    public void setPath(PathTable path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns how many monsters are in the store.
+     *
+     * @return How many monsters are in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Spawns a new monster with the stats of the given monster at the start
+     * of the path.
+     *
+     * @param template The monster whose stats the new monster gets.
+     * @return The handle of the new monster.
+     */
+    public int spawn(Monster template) {
+        return spawn(template, 1);
+    }
+
+    /**
+     * Spawns a batch of new monsters with the stats of the given monster at
+     * the start of the path. The store only grows once for the whole batch,
+     * and every column is filled in one go, so spawning a thousand monsters
+     * costs about as much as filling a thousand array entries.
+     *
+     * @param template The monster whose stats the new monsters get.
+     * @param count How many monsters to spawn.
+     * @return The handle of the first new monster; the rest follow on from
+     * it in order, or -1 if count is not positive.
+     */
+    public int spawn(Monster template, int count) {
+        if (count <= 0) {
+            return -1;
+        }
+        if (size + count > x.length) {
+            int capacity = x.length * 2;
+            while (capacity < size + count) {
+                capacity *= 2;
+            }
+            allocate(capacity);
+        }
+        if (nextHandle + count > slotOfHandle.length) {
+            int capacity = slotOfHandle.length * 2;
+            while (capacity < nextHandle + count) {
+                capacity *= 2;
+            }
+            slotOfHandle = Arrays.copyOf(slotOfHandle, capacity);
+        }
+
+        int type = template.getTypeId();
+        sheetOfType[type] = template.getSheet();
+        timePerFrameOfType[type] = 1.0 / template.getFramesPerSecond();
+
+        if (path.getNodeCount() == 0) {
+            System.out.println("ERROR: Could not get starting pathnode for"
+                   + " monster");
+        }
+        double startRotation = 0.0;
+        int startBucket = 0;
+        if (path.getSegmentCount() > 0) {
+            startRotation = path.getHeading(0);
+            startBucket = template.getSheet().getBucket(startRotation);
+        }
+        int startWidth = template.getSheet().getFrameWidth(0, startBucket);
+        int startHeight = template.getSheet().getFrameHeight(0, startBucket);
+
+        int from = size;
+        int to = size + count;
+        Arrays.fill(x, from, to, path.getStartX());
+        Arrays.fill(y, from, to, path.getStartY());
+        Arrays.fill(distance, from, to, 0.0);
+        Arrays.fill(segment, from, to, 0);
+        Arrays.fill(speed, from, to, template.getSpeed());
+        Arrays.fill(health, from, to, template.getHealth());
+        Arrays.fill(typeId, from, to, type);
+        Arrays.fill(damage, from, to, template.getDamage());
+        Arrays.fill(pointValue, from, to, template.getPointValue());
+        Arrays.fill(moneyValue, from, to, template.getMoneyValue());
+        Arrays.fill(alive, from, to, true);
+        Arrays.fill(rotation, from, to, startRotation);
+        Arrays.fill(rotationBucket, from, to, startBucket);
+        Arrays.fill(frameCell, from, to, 0);
+        Arrays.fill(frameTime, from, to, 0.0);
+        Arrays.fill(width, from, to, startWidth);
+        Arrays.fill(height, from, to, startHeight);
+
+        int firstHandle = nextHandle;
+        for (int slot = from; slot < to; slot++) {
+            int handle = nextHandle++;
+            handleOfSlot[slot] = handle;
+            slotOfHandle[handle] = slot;
+        }
+        size = to;
+        return firstHandle;
+    }
+
+    /**
+     * Returns the slot a monster currently occupies.
+     *
+     * @param handle The handle of the monster.
+     * @return The slot of the monster, or -1 if it has been removed.
+     */
+    public int getSlot(int handle) {
+        if (handle < 0 || handle >= nextHandle) {
+            return -1;
+        }
+        return slotOfHandle[handle];
+    }
+
+    /**
+     * Returns the handle of the monster in a slot.
+     *
+     * @param slot The slot of the monster.
+     * @return The handle of the monster.
+     */
+    public int getHandle(int slot) {
+        return handleOfSlot[slot];
+    }
+
+    /**
+     * Returns the x position of a monster.
+     *
+     * @param slot The slot of the monster.
+     * @return The x position of the monster.
+     */
+    public double getX(int slot) {
+        return x[slot];
+    }
+
+    /**
+     * Returns the y position of a monster.
+     *
+     * @param slot The slot of the monster.
+     * @return The y position of the monster.
+     */
+    public double getY(int slot) {
+        return y[slot];
+    }
+
+    /**
+     * Returns the health of a monster.
+     *
+     * @param slot The slot of the monster.
+     * @return The health of the monster.
+     */
+    public double getHealth(int slot) {
+        return health[slot];
+    }
+
+    /**
+     * Returns the type id of a monster.
+     *
+     * @param slot The slot of the monster.
+     * @return The type id of the monster.
+     */
+    public int getTypeId(int slot) {
+        return typeId[slot];
+    }
+
+    /**
+     * Returns the animation cell a monster is showing.
+     *
+     * @param slot The slot of the monster.
+     * @return The animation cell the monster is showing.
+     */
+    public int getFrameCell(int slot) {
+        return frameCell[slot];
+    }
+
+    /**
+     * Returns the angle bucket a monster is facing.
+     *
+     * @param slot The slot of the monster.
+     * @return The angle bucket the monster is facing.
+     */
+    public int getRotationBucket(int slot) {
+        return rotationBucket[slot];
+    }
+
+    /**
+     * Returns how many monster types the store knows about.
+     *
+     * @return How many monster types the store knows about.
+     */
+    public int getTypeCount() {
+        return TYPE_COUNT;
+    }
+
+    /**
+     * Returns the sprite sheet monsters of a type are drawn from.
+     *
+     * @param type The type id of the monsters.
+     * @return The sprite sheet, or null if no monster of the type has been
+     * spawned yet.
+     */
+    public SpriteSheet getSheet(int type) {
+        return sheetOfType[type];
+    }
+
+    /**
+     * Returns whether a monster is still alive.
+     *
+     * @param slot The slot of the monster.
+     * @return Whether the monster is still alive.
+     */
+    public boolean isAlive(int slot) {
+        return alive[slot];
+    }
+
+    /**
+     * Returns the image a monster is currently drawn with, taking rotation
+     * and the current animation frame into account.
+     *
+     * @param slot The slot of the monster.
+     * @return The image the monster is drawn with.
+     */
+    public BufferedImage getImage(int slot) {
+        return sheetOfType[typeId[slot]].getFrame(frameCell[slot],
+            rotationBucket[slot]);
+    }
+
+    /**
+     * Returns the width of a monster's current image.
+     *
+     * @param slot The slot of the monster.
+     * @return The width of the monster's current image.
+     */
+    public int getWidth(int slot) {
+        return width[slot];
+    }
+
+    /**
+     * Returns the height of a monster's current image.
+     *
+     * @param slot The slot of the monster.
+     * @return The height of the monster's current image.
+     */
+    public int getHeight(int slot) {
+        return height[slot];
+    }
+
+    /**
+     * Deals damage to a monster. If the damage killed the monster, then the
+     * method returns true so that the killing tower can add a kill to its
+     * score.
+     *
+     * @param slot The slot of the monster.
+     * @param amount The damage to deal to the monster.
+     * @return Whether or not the damage taken killed the monster.
+     */
+    public boolean takeDamage(int slot, double amount) {
+        if (alive[slot] && health[slot] > 0) {
+            health[slot] -= amount;
+            if (health[slot] <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Main update for every monster. Handles all position changing, health
+     * checking and animation. Monsters that die are noted down so that
+     * removeDead does not have to look through the whole store for them, and
+     * the damage, score and money they are worth is sent once every monster
+     * has been updated. removeDead has to be called before the next update.
+     *
+     * @param dt The time differential since the last frame.
+     * @throws IllegalStateException If the monsters that died during the
+     * last update have not been removed yet.
+     */
+    public void update(double dt) {
+		// removeDead relies on the dead slots being noted down in order,
+		// which only holds for a single update's worth of them
+        if (deadCount != 0) {
+            throw new IllegalStateException("Dead monsters must be removed"
+                + " before the next update");
+        }
+        for (int i = 0; i < size; i++) {
+            boolean wasAlive = alive[i];
+            boolean living = wasAlive;
+            int cause = 0;
+			// Only a monster already off the left edge can have got through,
+			// so most monsters never need their width looked at
+            double left = x[i];
+            if (left < 0 && left + width[i] < 0) {
+                living = false;
+                cause |= LEAKED;
+            }
+			// If the monster's health has dropped to 0 or below, then the
+			// monster is no longer alive and we need to add score and money
+			// to the player
+            if (health[i] <= 0) {
+                living = false;
+                cause |= KILLED;
+            }
+            if (living) {
+                living = move(i, dt);
+            }
+
+			// Animate
+            frameTime[i] += dt;
+            if (frameTime[i] >= timePerFrameOfType[typeId[i]]) {
+                frameTime[i] = 0.0;
+                SpriteSheet sheet = sheetOfType[typeId[i]];
+                int cell = frameCell[i] + 1;
+                if (cell == sheet.getCellCount()) {
+                    cell = 0;
+                }
+                frameCell[i] = cell;
+                width[i] = sheet.getFrameWidth(cell, rotationBucket[i]);
+                height[i] = sheet.getFrameHeight(cell, rotationBucket[i]);
+            }
+
+            if (wasAlive && !living) {
+                alive[i] = false;
+                deadSlots[deadCount] = i;
+                deadCauses[deadCount] = cause;
+                deadCount++;
+            }
+        }
+        sendDeathEvents();
+    }
+
+    /**
+     * Sends the events for every monster that died during an update, in the
+     * order they died in.
+     */
+    private void sendDeathEvents() {
+        EventChannel events = EventChannel.getInstance();
+        for (int d = 0; d < deadCount; d++) {
+            int i = deadSlots[d];
+            if ((deadCauses[d] & LEAKED) != 0) {
+                events.send(MessageRecipient.GAME_PANEL,
+                    MessageType.DEAL_DAMAGE, damage[i]);
+            }
+            if ((deadCauses[d] & KILLED) != 0) {
+                events.send(MessageRecipient.GAME_PANEL,
+                    MessageType.ADD_SCORE, pointValue[i]);
+                events.send(MessageRecipient.GAME_PANEL,
+                    MessageType.ADD_MONEY, moneyValue[i]);
+            }
+        }
+    }
+
+    /**
+     * Moves a single monster along the path, turning it to face the way the
+     * path goes whenever it reaches a new segment.
+     *
+     * @param i The slot of the monster.
+     * @param dt The time differential since the last frame.
+     * @return Whether the monster is still on the path.
+     */
+    private boolean move(int i, double dt) {
+        double travelled = distance[i] + speed[i] * dt;
+        distance[i] = travelled;
+        if (travelled >= path.getLength()) {
+			// We have reached the end, so move the monster off the
+			// screen and set it so it's not alive
+            x[i] = -1000;
+            y[i] = -1000;
+            return false;
+        }
+
+        int oldSegment = segment[i];
+        int newSegment = path.findSegment(oldSegment, travelled);
+        if (newSegment != oldSegment) {
+            segment[i] = newSegment;
+            rotation[i] = path.getHeading(newSegment);
+            SpriteSheet sheet = sheetOfType[typeId[i]];
+            rotationBucket[i] = sheet.getBucket(rotation[i]);
+            width[i] = sheet.getFrameWidth(frameCell[i], rotationBucket[i]);
+            height[i] = sheet.getFrameHeight(frameCell[i],
+                rotationBucket[i]);
+        }
+        x[i] = path.getX(newSegment, travelled);
+        y[i] = path.getY(newSegment, travelled);
+        return true;
+    }
+
+    /**
+     * Removes every monster that died during the last update.
+     * Each dead monster is replaced by the last monster in the store, going
+     * from the highest dead slot down so that no dead monster gets moved, so
+     * this only costs as much as the number of monsters that died. Must be
+     * called once after every update. If the store ends up empty, handles
+     * start again from 0.
+     *
+     * @return How many monsters were removed.
+     */
+    public int removeDead() {
+        int removed = deadCount;
+        for (int d = deadCount - 1; d >= 0; d--) {
+            int i = deadSlots[d];
+            slotOfHandle[handleOfSlot[i]] = -1;
+            int last = --size;
+            if (i != last) {
+                x[i] = x[last];
+                y[i] = y[last];
+                speed[i] = speed[last];
+                health[i] = health[last];
+                distance[i] = distance[last];
+                segment[i] = segment[last];
+                typeId[i] = typeId[last];
+                damage[i] = damage[last];
+                pointValue[i] = pointValue[last];
+                moneyValue[i] = moneyValue[last];
+                alive[i] = alive[last];
+                rotation[i] = rotation[last];
+                rotationBucket[i] = rotationBucket[last];
+                frameCell[i] = frameCell[last];
+                frameTime[i] = frameTime[last];
+                width[i] = width[last];
+                height[i] = height[last];
+                handleOfSlot[i] = handleOfSlot[last];
+                slotOfHandle[handleOfSlot[i]] = i;
+            }
+        }
+        deadCount = 0;
+        if (size == 0) {
+			// No handle is in use any more, so start them again rather than
+			// letting the handle table grow for the whole game
+            nextHandle = 0;
+            if (slotOfHandle.length > x.length) {
+                slotOfHandle = new int[x.length];
+            }
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,144 @@
+import java.awt.image.BufferedImage;
+import java.util.WeakHashMap;
+
+/**
+ * Class to represent which pixels of an image are opaque as a packed bitset.
+ * Each row is stored as a run of longs, one bit per pixel, so checking two
+ * images for overlapping opaque pixels is a handful of word wide ANDs per row
+ * instead of two getRGB calls per pixel. Masks are built once per image and
+ * shared.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class OpacityMask {
+    private static WeakHashMap<BufferedImage, OpacityMask> builtMasks
+        = new WeakHashMap<BufferedImage, OpacityMask>();
+
+    private int width;
+    private int height;
+    private int wordsPerRow;
+    private long[] bits;
+
+    /**
+     * Constructs a new OpacityMask from the alpha channel of an image.
+     *
+     * @param image The image to build the mask from.
+     */
+    public OpacityMask(BufferedImage image) {
+        width = image.getWidth();
+        height = image.getHeight();
+        wordsPerRow = (width + 63) / 64;
+        bits = new long[wordsPerRow * height];
+
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                if ((row[x] & 0xFF000000) != 0x00) {
+                    bits[y * wordsPerRow + (x >>> 6)] |= 1L << (x & 63);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the shared mask for an image, building it the first time it is
+     * asked for.
+     *
+     * @param image The image to get the mask for.
+     * @return The mask for the image.
+     */
+    public static synchronized OpacityMask getMask(BufferedImage image) {
+        OpacityMask mask = builtMasks.get(image);
+        if (mask == null) {
+            mask = new OpacityMask(image);
+            builtMasks.put(image, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the width of the mask.
+     *
+     * @return The width of the mask.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the mask.
+     *
+     * @return The height of the mask.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns whether the pixel at the given position is opaque.
+     *
+     * @param x The x coordinate of the pixel.
+     * @param y The y coordinate of the pixel.
+     * @return Whether the pixel is opaque.
+     */
+    public boolean isOpaque(int x, int y) {
+        return (bits[y * wordsPerRow + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    /**
+     * Returns up to 64 bits of a row starting at any bit. Bits past the end
+     * of the row come back as zero.
+     *
+     * @param y The row to read from.
+     * @param x The first bit to read.
+     * @return The bits starting at x, the lowest bit being x.
+     */
+    private long getBits(int y, int x) {
+        int word = x >>> 6;
+        int shift = x & 63;
+        int rowStart = y * wordsPerRow;
+        long result = bits[rowStart + word] >>> shift;
+        if (shift != 0 && word + 1 < wordsPerRow) {
+            result |= bits[rowStart + word + 1] << (64 - shift);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether this mask and another mask share any opaque pixels
+     * within a given area. The area is given in world coordinates and must lie
+     * within both masks.
+     *
+     * @param myX The x position of this mask.
+     * @param myY The y position of this mask.
+     * @param other The other mask to check against.
+     * @param otherX The x position of the other mask.
+     * @param otherY The y position of the other mask.
+     * @param xStart The first column of the area to check.
+     * @param yStart The first row of the area to check.
+     * @param xEnd The last column of the area to check.
+     * @param yEnd The last row of the area to check.
+     * @return True if any pixel in the area is opaque in both masks.
+     */
+    public boolean intersects(int myX, int myY, OpacityMask other, int otherX,
+        int otherY, int xStart, int yStart, int xEnd, int yEnd) {
+        for (int y = yStart; y <= yEnd; y++) {
+            int myRow = y - myY;
+            int otherRow = y - otherY;
+            for (int x = xStart; x <= xEnd; x += 64) {
+                long overlap = getBits(myRow, x - myX)
+                    & other.getBits(otherRow, x - otherX);
+                int remaining = xEnd - x + 1;
+                if (remaining < 64) {
+                    overlap &= (1L << remaining) - 1;
+                }
+                if (overlap != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.Vector;
+
+/**
+ * Class to hold a level's path measured out by distance along it.
+ * The path is broken into straight segments between its nodes, and for each
+ * segment the table keeps where it starts, how far along the path it begins
+ * and ends, which way it points as a unit vector and the angle it faces. A
+ * monster then only needs to know how far along the path it is: moving it is
+ * a single add, and its position is looked up from the segment it is on, so
+ * it follows the path exactly no matter how fast it goes or how long a tick
+ * is. Tables are built once per level and never change.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class PathTable {
+    private int nodeCount;
+    private int firstX;
+    private int firstY;
+    private double[] startX;
+    private double[] startY;
+    private double[] directionX;
+    private double[] directionY;
+    private double[] heading;
+    private double[] segmentStart;
+    private double[] segmentEnd;
+    private double length;
+
+    /**
+     * Constructs a new PathTable through the given nodes.
+     *
+     * @param nodes The nodes of the path in order, or null for no path.
+     */
+    public PathTable(Vector<PathNode> nodes) {
+        nodeCount = nodes != null ? nodes.size() : 0;
+        if (nodeCount > 0) {
+            firstX = nodes.get(0).getX();
+            firstY = nodes.get(0).getY();
+        }
+        int segmentCount = Math.max(0, nodeCount - 1);
+        startX = new double[segmentCount];
+        startY = new double[segmentCount];
+        directionX = new double[segmentCount];
+        directionY = new double[segmentCount];
+        heading = new double[segmentCount];
+        segmentStart = new double[segmentCount];
+        segmentEnd = new double[segmentCount];
+
+        double distance = 0.0;
+        double previousHeading = 0.0;
+        for (int i = 0; i < segmentCount; i++) {
+            PathNode from = nodes.get(i);
+            PathNode to = nodes.get(i + 1);
+            double deltaX = to.getX() - from.getX();
+            double deltaY = to.getY() - from.getY();
+            double segmentLength = Math.sqrt(deltaX * deltaX
+                + deltaY * deltaY);
+
+            startX[i] = from.getX();
+            startY[i] = from.getY();
+            segmentStart[i] = distance;
+            distance += segmentLength;
+            segmentEnd[i] = distance;
+
+			// A segment with no length is skipped straight over, so it just
+			// keeps facing the way the last one did
+            if (segmentLength > 0) {
+                directionX[i] = deltaX / segmentLength;
+                directionY[i] = deltaY / segmentLength;
+                heading[i] = getAngle(deltaX, deltaY);
+            } else {
+                heading[i] = previousHeading;
+            }
+            previousHeading = heading[i];
+        }
+        length = distance;
+    }
+
+    /**
+     * Returns the angle a vector points in, between 0 and 2 pi.
+     *
+     * @param deltaX The x component of the vector.
+     * @param deltaY The y component of the vector.
+     * @return The angle the vector points in.
+     */
+    private static double getAngle(double deltaX, double deltaY) {
+        double angle = Math.atan(deltaY / deltaX);
+        if (deltaX < 0) {
+            angle += Math.PI;
+        } else if (deltaY < 0) {
+            angle += Math.PI * 2;
+        }
+        return angle;
+    }
+
+    /**
+     * Returns how many nodes the path has.
+     *
+     * @return How many nodes the path has.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the x coordinate of the first node, where monsters spawn.
+     *
+     * @return The x coordinate of the first node, or 0 if there are no nodes.
+     */
+    public int getStartX() {
+        return firstX;
+    }
+
+    /**
+     * Returns the y coordinate of the first node, where monsters spawn.
+     *
+     * @return The y coordinate of the first node, or 0 if there are no nodes.
+     */
+    public int getStartY() {
+        return firstY;
+    }
+
+    /**
+     * Returns how many segments the path has, which is one fewer than the
+     * number of nodes.
+     *
+     * @return How many segments the path has.
+     */
+    public int getSegmentCount() {
+        return segmentEnd.length;
+    }
+
+    /**
+     * Returns the total length of the path.
+     *
+     * @return The total length of the path.
+     */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * Finds the segment a distance along the path falls on, searching
+     * forward from a segment at or before it. Since monsters only ever move
+     * forward, this is usually no search at all.
+     *
+     * @param segment A segment at or before the one to find.
+     * @param distance The distance along the path, less than its length.
+     * @return The segment the distance falls on.
+     */
+    public int findSegment(int segment, double distance) {
+        while (distance >= segmentEnd[segment]) {
+            segment++;
+        }
+        return segment;
+    }
+
+    /**
+     * Returns the x coordinate of a point on the path.
+     *
+     * @param segment The segment the point is on.
+     * @param distance The distance of the point along the path.
+     * @return The x coordinate of the point.
+     */
+    public double getX(int segment, double distance) {
+        return startX[segment]
+            + directionX[segment] * (distance - segmentStart[segment]);
+    }
+
+    /**
+     * Returns the y coordinate of a point on the path.
+     *
+     * @param segment The segment the point is on.
+     * @param distance The distance of the point along the path.
+     * @return The y coordinate of the point.
+     */
+    public double getY(int segment, double distance) {
+        return startY[segment]
+            + directionY[segment] * (distance - segmentStart[segment]);
+    }
+
+    /**
+     * Returns the angle something moving along a segment faces.
+     *
+     * @param segment The segment.
+     * @return The angle the segment faces, between 0 and 2 pi.
+     */
+    public double getHeading(int segment) {
+        return heading[segment];
+    }
+}
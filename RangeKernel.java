@@ -0,0 +1,28 @@
+/**
+ * Interface for a brute force range check over packed monster centers.
+ * A kernel looks at every monster center and writes down which ones fall
+ * within a squared distance of a point. The centers are packed as floats so
+ * that vectorized kernels can check as many of them at once as possible; the
+ * caller pads the range to make up for float rounding and checks each
+ * candidate again exactly, so a kernel only has to never miss a monster.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public interface RangeKernel {
+    /**
+     * Finds every monster center within a squared distance of a point.
+     *
+     * @param centerX The x coordinates of the monster centers.
+     * @param centerY The y coordinates of the monster centers.
+     * @param count How many monster centers there are.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @param rangeSquared The squared distance to check within.
+     * @param candidates Array to write the indices of the monsters found
+     * into, in increasing order. Must hold at least count entries.
+     * @return How many monsters were found.
+     */
+    int findCandidates(float[] centerX, float[] centerY, int count, float x,
+        float y, float rangeSquared, int[] candidates);
+}
@@ -0,0 +1,155 @@
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class to draw the game onto a canvas at a steady frame rate.
+ * Rather than asking Swing to repaint and waiting for the event dispatch
+ * thread to get round to it, the render loop draws the newest snapshot
+ * straight into the canvas's buffer strategy on its own thread, flips the
+ * buffers, syncs with the display and then sleeps until the next frame is
+ * due. Frames are paced against a fixed schedule; a frame that runs past one
+ * or more deadlines counts those frames as dropped and picks the schedule back
+ * up from the next deadline, rather than rushing to catch up. The time spent
+ * drawing is added up so that the renderer's share of the CPU can be checked
+ * against the frame budget.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class RenderLoop implements Runnable {
+    public static final int DEFAULT_TARGET_FPS = 60;
+
+    private Canvas canvas;
+    private GameRenderer renderer;
+    private SnapshotExchange snapshots;
+    private int targetFps;
+    private long nanosPerFrame;
+    private volatile boolean running;
+    private volatile long framesRendered;
+    private volatile long framesDropped;
+    private volatile long renderNanos;
+
+    /**
+     * Constructs a new RenderLoop.
+     *
+     * @param canvas The canvas to draw on.
+     * @param renderer The renderer to draw frames with.
+     * @param snapshots The exchange to take snapshots from.
+     * @param targetFps How many frames to draw per second.
+     */
+    public RenderLoop(Canvas canvas, GameRenderer renderer,
+        SnapshotExchange snapshots, int targetFps) {
+        if (targetFps <= 0) {
+            throw new IllegalArgumentException("Target frame rate must be"
+                + " positive");
+        }
+        this.canvas = canvas;
+        this.renderer = renderer;
+        this.snapshots = snapshots;
+        this.targetFps = targetFps;
+        this.nanosPerFrame = 1000000000L / targetFps;
+        this.running = true;
+    }
+
+    /**
+     * Returns how many frames are drawn per second.
+     *
+     * @return How many frames are drawn per second.
+     */
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * Returns how many frames have been drawn.
+     *
+     * @return How many frames have been drawn.
+     */
+    public long getFramesRendered() {
+        return framesRendered;
+    }
+
+    /**
+     * Returns how many frames were skipped because drawing ran late.
+     *
+     * @return How many frames were skipped.
+     */
+    public long getFramesDropped() {
+        return framesDropped;
+    }
+
+    /**
+     * Returns how long has been spent drawing frames in total.
+     *
+     * @return How long has been spent drawing, in nanoseconds.
+     */
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    /**
+     * Stops the render loop after the frame it is drawing.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Main render loop. Draws a frame, then waits for the next one to be due.
+     */
+    @Override
+    public void run() {
+        canvas.createBufferStrategy(2);
+        BufferStrategy strategy = canvas.getBufferStrategy();
+
+        long nextFrame = System.nanoTime();
+        while (running) {
+            long frameStart = System.nanoTime();
+            renderFrame(strategy);
+            long frameEnd = System.nanoTime();
+            renderNanos += frameEnd - frameStart;
+            framesRendered++;
+
+			// Skip any deadlines we have already missed instead of drawing
+			// a burst of frames to catch up
+            nextFrame += nanosPerFrame;
+            if (frameEnd > nextFrame) {
+                long missed = (frameEnd - nextFrame) / nanosPerFrame + 1;
+                framesDropped += missed;
+                nextFrame += missed * nanosPerFrame;
+            }
+
+            long sleepTime = nextFrame - System.nanoTime();
+            if (sleepTime > 0) {
+                LockSupport.parkNanos(this, sleepTime);
+            }
+        }
+        strategy.dispose();
+    }
+
+    /**
+     * Draws the newest snapshot into the back buffer and shows it, redrawing
+     * if the buffer's contents were lost along the way.
+     *
+     * @param strategy The buffer strategy to draw into.
+     */
+    private void renderFrame(BufferStrategy strategy) {
+        RenderSnapshot snapshot = snapshots.acquire();
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    renderer.render(g, snapshot,
+                        GameRenderer.getMouseLocation(canvas));
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
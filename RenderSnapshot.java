@@ -0,0 +1,386 @@
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Class to hold everything needed to draw one frame of the game.
+ * The simulation copies its state into a snapshot and then publishes it
+ * through a SnapshotExchange, after which it never touches that snapshot again
+ * until the renderer has let go of it. The renderer therefore only ever sees a
+ * complete, unchanging picture of a single tick, and never has to look at the
+ * towers and monsters the simulation is busy changing. Everything is kept in
+ * plain arrays that are reused from frame to frame, and images, masks and
+ * sheets are shared rather than copied since they never change.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class RenderSnapshot {
+    private BufferedImage backgroundImage;
+    private BufferedImage pathImage;
+    private OpacityMask pathMask;
+    private boolean dead;
+    private boolean inPlaceMode;
+    private TowerType towerToPlace;
+
+    private int towerCount;
+    private int towerLayoutVersion;
+    private int[] towerX;
+    private int[] towerY;
+    private int[] towerRange;
+    private int[] towerKills;
+    private int[] laserAlpha;
+    private int[] laserTargetX;
+    private int[] laserTargetY;
+    private BufferedImage[] towerImage;
+    private OpacityMask[] towerMask;
+    private Color[] laserColor;
+
+    private int monsterCount;
+    private int[] monsterX;
+    private int[] monsterY;
+    private int[] monsterType;
+    private int[] monsterCell;
+    private int[] monsterBucket;
+    private SpriteSheet[] sheetOfType;
+
+    /**
+     * Constructs a new, empty RenderSnapshot.
+     */
+    public RenderSnapshot() {
+        towerCount = 0;
+        towerX = new int[16];
+        towerY = new int[16];
+        towerRange = new int[16];
+        towerKills = new int[16];
+        laserAlpha = new int[16];
+        laserTargetX = new int[16];
+        laserTargetY = new int[16];
+        towerImage = new BufferedImage[16];
+        towerMask = new OpacityMask[16];
+        laserColor = new Color[16];
+
+        monsterCount = 0;
+        monsterX = new int[64];
+        monsterY = new int[64];
+        monsterType = new int[64];
+        monsterCell = new int[64];
+        monsterBucket = new int[64];
+        sheetOfType = new SpriteSheet[0];
+    }
+
+    /**
+     * Copies the level and player state into the snapshot.
+     *
+     * @param backgroundImage The background image of the level.
+     * @param pathImage The path image of the level, or null.
+     * @param pathMask The opacity mask of the path image, or null.
+     * @param dead Whether the player has died.
+     * @param inPlaceMode Whether the player is placing a tower.
+     * @param towerToPlace The type of tower being placed.
+     */
+    public void captureState(BufferedImage backgroundImage,
+        BufferedImage pathImage, OpacityMask pathMask, boolean dead,
+        boolean inPlaceMode, TowerType towerToPlace) {
+        this.backgroundImage = backgroundImage;
+        this.pathImage = pathImage;
+        this.pathMask = pathMask;
+        this.dead = dead;
+        this.inPlaceMode = inPlaceMode;
+        this.towerToPlace = towerToPlace;
+    }
+
+    /**
+     * Copies everything needed to draw the towers into the snapshot.
+     *
+     * @param towers All of the towers on the level.
+     * @param layoutVersion A number that changes whenever a tower is placed
+     * or removed, so the renderer can tell when its cached towers are stale.
+     */
+    public void captureTowers(EntityBag<Tower> towers, int layoutVersion) {
+        towerLayoutVersion = layoutVersion;
+        int count = towers.size();
+        if (towerX.length < count) {
+            int capacity = Math.max(count, towerX.length * 2);
+            towerX = Arrays.copyOf(towerX, capacity);
+            towerY = Arrays.copyOf(towerY, capacity);
+            towerRange = Arrays.copyOf(towerRange, capacity);
+            towerKills = Arrays.copyOf(towerKills, capacity);
+            laserAlpha = Arrays.copyOf(laserAlpha, capacity);
+            laserTargetX = Arrays.copyOf(laserTargetX, capacity);
+            laserTargetY = Arrays.copyOf(laserTargetY, capacity);
+            towerImage = Arrays.copyOf(towerImage, capacity);
+            towerMask = Arrays.copyOf(towerMask, capacity);
+            laserColor = Arrays.copyOf(laserColor, capacity);
+        }
+        for (int i = 0; i < count; i++) {
+            Tower t = towers.get(i);
+            towerX[i] = t.getX();
+            towerY[i] = t.getY();
+            towerRange[i] = t.getRange();
+            towerKills[i] = t.getKills();
+            laserAlpha[i] = t.getLaserAlpha();
+            laserTargetX[i] = t.getLaserTargetX();
+            laserTargetY[i] = t.getLaserTargetY();
+            towerImage[i] = t.getImage();
+            towerMask[i] = t.getMask();
+            laserColor[i] = t.getLaserColor();
+        }
+		// Let go of towers that are no longer on the level
+        for (int i = count; i < towerCount; i++) {
+            towerImage[i] = null;
+            towerMask[i] = null;
+            laserColor[i] = null;
+        }
+        towerCount = count;
+    }
+
+    /**
+     * Copies everything needed to draw the monsters into the snapshot.
+     *
+     * @param monsters Store containing all of the monsters on the level.
+     */
+    public void captureMonsters(MonsterStore monsters) {
+        int count = monsters.size();
+        if (monsterX.length < count) {
+            int capacity = Math.max(count, monsterX.length * 2);
+            monsterX = new int[capacity];
+            monsterY = new int[capacity];
+            monsterType = new int[capacity];
+            monsterCell = new int[capacity];
+            monsterBucket = new int[capacity];
+        }
+        for (int i = 0; i < count; i++) {
+            monsterX[i] = (int) monsters.getX(i);
+            monsterY[i] = (int) monsters.getY(i);
+            monsterType[i] = monsters.getTypeId(i);
+            monsterCell[i] = monsters.getFrameCell(i);
+            monsterBucket[i] = monsters.getRotationBucket(i);
+        }
+        if (sheetOfType.length != monsters.getTypeCount()) {
+            sheetOfType = new SpriteSheet[monsters.getTypeCount()];
+        }
+        for (int type = 0; type < sheetOfType.length; type++) {
+            sheetOfType[type] = monsters.getSheet(type);
+        }
+        monsterCount = count;
+    }
+
+    /**
+     * Checks whether a tower could be placed centered on a point, against
+     * the towers and the path in this snapshot.
+     *
+     * @param towerMask The opacity mask of the tower to place.
+     * @param center The point the tower would be centered on.
+     * @return Whether the tower could be placed there.
+     */
+    public boolean canPlaceTower(OpacityMask towerMask, Point center) {
+        Point towerPosition = new Point(
+            (int) center.getX() - towerMask.getWidth() / 2,
+            (int) center.getY() - towerMask.getHeight() / 2);
+        Point otherPosition = new Point();
+        for (int i = 0; i < towerCount; i++) {
+            otherPosition.setLocation(towerX[i], towerY[i]);
+            if (ImageHelper.checkTowerTowerIntersection(towerMask,
+                towerPosition, this.towerMask[i], otherPosition)) {
+                return false;
+            }
+        }
+        return pathMask == null || !ImageHelper.checkTowerPathIntersection(
+            towerMask, towerPosition, pathMask);
+    }
+
+    /**
+     * Returns the background image of the level.
+     *
+     * @return The background image of the level.
+     */
+    public BufferedImage getBackgroundImage() {
+        return backgroundImage;
+    }
+
+    /**
+     * Returns the path image of the level.
+     *
+     * @return The path image of the level, or null if it has none.
+     */
+    public BufferedImage getPathImage() {
+        return pathImage;
+    }
+
+    /**
+     * Returns whether the player had died.
+     *
+     * @return Whether the player had died.
+     */
+    public boolean isDead() {
+        return dead;
+    }
+
+    /**
+     * Returns whether the player was placing a tower.
+     *
+     * @return Whether the player was placing a tower.
+     */
+    public boolean isInPlaceMode() {
+        return inPlaceMode;
+    }
+
+    /**
+     * Returns the type of tower being placed.
+     *
+     * @return The type of tower being placed.
+     */
+    public TowerType getTowerToPlace() {
+        return towerToPlace;
+    }
+
+    /**
+     * Returns how many towers are in the snapshot.
+     *
+     * @return How many towers are in the snapshot.
+     */
+    public int getTowerCount() {
+        return towerCount;
+    }
+
+    /**
+     * Returns the number that changes whenever a tower is placed or removed.
+     *
+     * @return The tower layout version.
+     */
+    public int getTowerLayoutVersion() {
+        return towerLayoutVersion;
+    }
+
+    /**
+     * Returns the x position of a tower.
+     *
+     * @param i The index of the tower.
+     * @return The x position of the tower.
+     */
+    public int getTowerX(int i) {
+        return towerX[i];
+    }
+
+    /**
+     * Returns the y position of a tower.
+     *
+     * @param i The index of the tower.
+     * @return The y position of the tower.
+     */
+    public int getTowerY(int i) {
+        return towerY[i];
+    }
+
+    /**
+     * Returns the range of a tower.
+     *
+     * @param i The index of the tower.
+     * @return The range of the tower.
+     */
+    public int getTowerRange(int i) {
+        return towerRange[i];
+    }
+
+    /**
+     * Returns how many kills a tower has.
+     *
+     * @param i The index of the tower.
+     * @return How many kills the tower has.
+     */
+    public int getTowerKills(int i) {
+        return towerKills[i];
+    }
+
+    /**
+     * Returns the image of a tower.
+     *
+     * @param i The index of the tower.
+     * @return The image of the tower.
+     */
+    public BufferedImage getTowerImage(int i) {
+        return towerImage[i];
+    }
+
+    /**
+     * Returns the alpha of a tower's laser.
+     *
+     * @param i The index of the tower.
+     * @return The alpha of the laser, or -1 if it is not showing.
+     */
+    public int getLaserAlpha(int i) {
+        return laserAlpha[i];
+    }
+
+    /**
+     * Returns the x coordinate a tower's laser is drawn to.
+     *
+     * @param i The index of the tower.
+     * @return The x coordinate the laser is drawn to.
+     */
+    public int getLaserTargetX(int i) {
+        return laserTargetX[i];
+    }
+
+    /**
+     * Returns the y coordinate a tower's laser is drawn to.
+     *
+     * @param i The index of the tower.
+     * @return The y coordinate the laser is drawn to.
+     */
+    public int getLaserTargetY(int i) {
+        return laserTargetY[i];
+    }
+
+    /**
+     * Returns the color of a tower's laser.
+     *
+     * @param i The index of the tower.
+     * @return The color of the laser.
+     */
+    public Color getLaserColor(int i) {
+        return laserColor[i];
+    }
+
+    /**
+     * Returns how many monsters are in the snapshot.
+     *
+     * @return How many monsters are in the snapshot.
+     */
+    public int getMonsterCount() {
+        return monsterCount;
+    }
+
+    /**
+     * Returns the x position of a monster.
+     *
+     * @param i The index of the monster.
+     * @return The x position of the monster.
+     */
+    public int getMonsterX(int i) {
+        return monsterX[i];
+    }
+
+    /**
+     * Returns the y position of a monster.
+     *
+     * @param i The index of the monster.
+     * @return The y position of the monster.
+     */
+    public int getMonsterY(int i) {
+        return monsterY[i];
+    }
+
+    /**
+     * Returns the image a monster is drawn with.
+     *
+     * @param i The index of the monster.
+     * @return The image the monster is drawn with.
+     */
+    public BufferedImage getMonsterImage(int i) {
+        return sheetOfType[monsterType[i]].getFrame(monsterCell[i],
+            monsterBucket[i]);
+    }
+}
@@ -0,0 +1,279 @@
+import java.awt.Point;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * Class to play a replay file back through a game simulation without any
+ * display. Every recorded input is pushed to the simulation on the tick it was
+ * first handled on, in the same order as the messages the simulation sent
+ * itself, and the simulation is ticked as fast as the machine allows until
+ * the recording ends. Since the simulation is deterministic, a replay always
+ * ends in the same state as the game it was recorded from, which makes it
+ * both a regression check and a benchmark of a real game. See ReplayRecorder
+ * for the layout of a replay file.
+ * <p>
+ * Usage: java ReplayPlayer replayFile [runs]
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class ReplayPlayer {
+    private int tickRate;
+    private long endTick;
+    private ArrayList<ReplayInput> inputs;
+
+    /**
+     * Class to hold one recorded input.
+     */
+    private static class ReplayInput {
+        private long tick;
+        private int skipped;
+        private Message<?> message;
+
+        /**
+         * Constructs a new ReplayInput.
+         *
+         * @param tick The tick the input was handled on.
+         * @param skipped How many messages the simulation sent itself were
+         * handled before it on the same tick.
+         * @param message The input.
+         */
+        public ReplayInput(long tick, int skipped, Message<?> message) {
+            this.tick = tick;
+            this.skipped = skipped;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Constructs a new ReplayPlayer, reading a whole replay file in. A
+     * recording that was cut short is played up to its last whole input.
+     *
+     * @param replayFile The replay file to read.
+     * @throws IOException If the file could not be read or is not a replay.
+     */
+    public ReplayPlayer(File replayFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(replayFile.toPath());
+        int[] position = new int[1];
+        if (bytes.length < 4 || ((bytes[0] & 0xFF) << 24
+            | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8
+            | (bytes[3] & 0xFF)) != ReplayRecorder.MAGIC) {
+            throw new IOException(replayFile + " is not a replay file");
+        }
+        position[0] = 4;
+        int version = (int) readVarint(bytes, position);
+        if (version != ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        tickRate = (int) readVarint(bytes, position);
+        if (tickRate <= 0) {
+            throw new IOException("Bad tick rate " + tickRate);
+        }
+
+        inputs = new ArrayList<ReplayInput>();
+        endTick = -1;
+        MessageType[] types = MessageType.values();
+        long tick = 0;
+        try {
+            while (true) {
+                tick += readVarint(bytes, position);
+                int type = (int) readVarint(bytes, position);
+                if (type == ReplayRecorder.END_OF_REPLAY) {
+                    endTick = tick;
+                    break;
+                }
+                if (type > types.length) {
+                    throw new IOException("Bad message type " + type);
+                }
+                MessageType messageType = types[type - 1];
+                int skipped = (int) readVarint(bytes, position);
+                int kind = ReplayRecorder.getDataKind(messageType);
+                Message<?> message;
+                if (kind == ReplayRecorder.DATA_INTEGER) {
+                    message = new Message<Integer>(MessageRecipient.GAME_PANEL,
+                        messageType, unzigzag(readVarint(bytes, position)));
+                } else if (kind == ReplayRecorder.DATA_POINT) {
+                    int x = unzigzag(readVarint(bytes, position));
+                    int y = unzigzag(readVarint(bytes, position));
+                    message = new Message<Point>(MessageRecipient.GAME_PANEL,
+                        messageType, new Point(x, y));
+                } else if (kind == ReplayRecorder.DATA_NONE) {
+                    message = new Message<String>(MessageRecipient.GAME_PANEL,
+                        messageType, messageType.toString());
+                } else {
+                    throw new IOException("Message type " + messageType
+                        + " is never recorded");
+                }
+                inputs.add(new ReplayInput(tick, skipped, message));
+            }
+        } catch (EOFException e) {
+            System.out.println("ERROR: Replay " + replayFile
+                + " was cut short, playing up to its last input");
+        }
+        if (endTick < 0) {
+            endTick = inputs.isEmpty() ? 0
+                : inputs.get(inputs.size() - 1).tick + 1;
+        }
+    }
+
+    /**
+     * Plays a replay file from the command line, optionally several times
+     * over to time it.
+     *
+     * @param args The replay file and how many times to play it.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        if (args.length < 1) {
+            System.out.println("Usage: java ReplayPlayer replayFile [runs]");
+            System.exit(1);
+        }
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        ReplayPlayer player = null;
+        try {
+            player = new ReplayPlayer(new File(args[0]));
+        } catch (IOException e) {
+            System.out.println("ERROR: Could not read replay " + args[0]);
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Replay: " + player.inputs.size() + " inputs over "
+            + player.endTick + " ticks at " + player.tickRate + " ticks/s");
+
+        for (int run = 1; run <= runs; run++) {
+            GameSimulation simulation = new GameSimulation();
+            long startTime = System.nanoTime();
+            player.play(simulation);
+            double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+
+            System.out.println("Run " + run + ": " + simulation.getTickCount()
+                + " ticks in " + seconds + "s ("
+                + (long) (simulation.getTickCount() / seconds) + " ticks/s)"
+                + " wave=" + simulation.getCurrentWave()
+                + " score=" + simulation.getScore()
+                + " health=" + simulation.getHealth()
+                + " money=" + simulation.getMoney()
+                + " towers=" + simulation.getTowers().size());
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Plays the replay through a new simulation.
+     *
+     * @param simulation The simulation to play the replay through.
+     */
+    public void play(GameSimulation simulation) {
+        double dt = 1.0 / tickRate;
+        int next = 0;
+        drain(MessageRecipient.GAME_PANEL);
+        drain(MessageRecipient.CONTROL_PANEL);
+
+        while (true) {
+            long tick = simulation.getTickCount();
+            if (next < inputs.size() && inputs.get(next).tick == tick) {
+                next = pushInputs(next, tick);
+            }
+
+			// The simulation does not tick on the menu or after dying, so
+			// staying idle once this tick's inputs are handled means the
+			// recording ended there
+            if (simulation.isIdle()) {
+                simulation.processMessages();
+                if (simulation.isIdle()) {
+                    break;
+                }
+            }
+            if (tick >= endTick) {
+                break;
+            }
+            simulation.update(dt);
+			// Nobody is listening for control panel updates, so throw them
+			// away rather than letting them pile up
+            drain(MessageRecipient.CONTROL_PANEL);
+        }
+        drain(MessageRecipient.CONTROL_PANEL);
+    }
+
+    /**
+     * Pushes every input recorded on a tick, putting each one back among the
+     * messages the simulation already sent itself where it was handled.
+     *
+     * @param next The first input on the tick.
+     * @param tick The tick.
+     * @return The first input after the tick.
+     */
+    private int pushInputs(int next, long tick) {
+        ArrayList<Message<?>> pending = new ArrayList<Message<?>>();
+        Message<?> message;
+        while ((message = MessageQueue.getInstance().pop(
+            MessageRecipient.GAME_PANEL)) != null) {
+            pending.add(message);
+        }
+
+        int pushed = 0;
+        while (next < inputs.size() && inputs.get(next).tick == tick) {
+            ReplayInput input = inputs.get(next++);
+            while (pushed < input.skipped && pushed < pending.size()) {
+                MessageQueue.getInstance().push(pending.get(pushed++));
+            }
+            MessageQueue.getInstance().push(input.message);
+        }
+        while (pushed < pending.size()) {
+            MessageQueue.getInstance().push(pending.get(pushed++));
+        }
+        return next;
+    }
+
+    /**
+     * Throws away every message and event waiting for a recipient.
+     *
+     * @param recipient The recipient whose messages to throw away.
+     */
+    private static void drain(MessageRecipient recipient) {
+        while (MessageQueue.getInstance().pop(recipient) != null) {
+            continue;
+        }
+        EventChannel.getInstance().clear(recipient);
+    }
+
+    /**
+     * Reads a variable length integer.
+     *
+     * @param bytes The bytes to read from.
+     * @param position Where to read from, moved past the integer.
+     * @return The integer.
+     * @throws IOException If the bytes end in the middle of the integer, or
+     * it is too long to be one.
+     */
+    private static long readVarint(byte[] bytes, int[] position)
+        throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new EOFException();
+            }
+            int b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Variable length integer is too long");
+    }
+
+    /**
+     * Undoes the zigzag encoding of a signed number.
+     *
+     * @param value The encoded number.
+     * @return The number.
+     */
+    private static int unzigzag(long value) {
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+}
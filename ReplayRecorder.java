@@ -0,0 +1,227 @@
+import java.awt.Point;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Class to record every input the game simulation handles to a replay file.
+ * The simulation never uses anything but its messages and the fixed tick
+ * length, so the same messages on the same ticks always play out the same
+ * game; a replay only has to hold the player's inputs to reproduce a whole
+ * session exactly. Anything the simulation sends itself is left out, since
+ * replaying the inputs sends it again. Damage, score and money events go
+ * through the event channel and are always handled before the tick's
+ * messages, so they never mix with inputs. Any other message that is not an
+ * input is still counted, since an input can land in the queue between such
+ * messages and the order they are handled in can matter.
+ * <p>
+ * A replay file starts with a 4 byte magic number followed by the format
+ * version and the tick rate. After that comes one record per message: the
+ * number of ticks since the last record, the message type, how many messages
+ * the simulation sent itself were handled before it on the same tick, and
+ * then the message's data, if it has any that matters. Everything but the
+ * magic number is written as a variable length integer, 7 bits to a byte,
+ * with signed numbers zigzag encoded first, so most records only take 3 to 8
+ * bytes. A message type of 0 marks the end of the recording. Records are
+ * flushed as they are written, so a recording cut short still plays back up
+ * to its last input.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class ReplayRecorder {
+    public static final int MAGIC = 0x54445250;
+    public static final int VERSION = 2;
+    public static final int END_OF_REPLAY = 0;
+
+    public static final int DATA_NONE = 0;
+    public static final int DATA_INTEGER = 1;
+    public static final int DATA_POINT = 2;
+    public static final int NOT_RECORDED = -1;
+
+    private File replayFile;
+    private OutputStream out;
+    private long lastTick;
+    private long currentTick;
+    private int skippedThisTick;
+    private boolean closed;
+
+    /**
+     * Constructs a new ReplayRecorder, creating the replay file and writing
+     * its header.
+     *
+     * @param replayFile The file to record to.
+     * @param tickRate How many simulation ticks are run per second.
+     * @throws IOException If the file could not be created.
+     */
+    public ReplayRecorder(File replayFile, int tickRate) throws IOException {
+        this.replayFile = replayFile;
+        this.out = new BufferedOutputStream(new FileOutputStream(replayFile));
+        this.lastTick = 0;
+        this.currentTick = 0;
+        this.skippedThisTick = 0;
+        this.closed = false;
+
+        out.write(MAGIC >>> 24);
+        out.write(MAGIC >>> 16);
+        out.write(MAGIC >>> 8);
+        out.write(MAGIC);
+        writeVarint(VERSION);
+        writeVarint(tickRate);
+        out.flush();
+    }
+
+    /**
+     * Creates a recorder for the file named by the towerdefense.recordReplay
+     * system property, which finishes the recording when the game exits.
+     *
+     * @param simulation The simulation that will be recorded.
+     * @param tickRate How many simulation ticks are run per second.
+     * @return The recorder, or null if the property is not set or the file
+     * could not be created.
+     */
+    public static ReplayRecorder fromProperty(
+        final GameSimulation simulation, int tickRate) {
+        String fileName = System.getProperty("towerdefense.recordReplay");
+        if (fileName == null) {
+            return null;
+        }
+        final ReplayRecorder recorder;
+        try {
+            recorder = new ReplayRecorder(new File(fileName), tickRate);
+        } catch (IOException e) {
+            System.out.println("ERROR: Could not create replay file "
+                + fileName);
+            System.out.println(e.getMessage());
+            return null;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread("Replay Recorder") {
+            @Override
+            public void run() {
+                recorder.close(simulation.getTickCount());
+            }
+        });
+        return recorder;
+    }
+
+    /**
+     * Returns what kind of data is recorded for a type of message.
+     *
+     * @param type The type of message.
+     * @return One of DATA_NONE, DATA_INTEGER and DATA_POINT, or NOT_RECORDED
+     * if messages of this type are not inputs.
+     */
+    public static int getDataKind(MessageType type) {
+        switch (type) {
+            case SPAWN_BASIC_TOWER:
+            case SPAWN_FAST_TOWER:
+            case SPAWN_MEGA_TOWER:
+            case GAME_CLICKED:
+                return DATA_POINT;
+            case CHANGE_LEVEL:
+                return DATA_INTEGER;
+            case PLACE_BASIC_TOWER:
+            case PLACE_FAST_TOWER:
+            case PLACE_MEGA_TOWER:
+            case SPAWN_WAVE:
+                return DATA_NONE;
+            default:
+                return NOT_RECORDED;
+        }
+    }
+
+    /**
+     * Records a message if it is an input, or counts it if it is not.
+     *
+     * @param tick The simulation tick the message was handled on.
+     * @param message The message that was handled.
+     */
+    public synchronized void record(long tick, Message<?> message) {
+        if (closed) {
+            return;
+        }
+        if (tick != currentTick) {
+            currentTick = tick;
+            skippedThisTick = 0;
+        }
+        int kind = getDataKind(message.getMessageType());
+        if (kind == NOT_RECORDED) {
+            skippedThisTick++;
+            return;
+        }
+        try {
+            writeVarint(tick - lastTick);
+            writeVarint(message.getMessageType().ordinal() + 1);
+            writeVarint(skippedThisTick);
+            if (kind == DATA_INTEGER) {
+                writeVarint(zigzag((Integer) message.getMessageData()));
+            } else if (kind == DATA_POINT) {
+                Point point = (Point) message.getMessageData();
+                writeVarint(zigzag(point.x));
+                writeVarint(zigzag(point.y));
+            }
+            out.flush();
+            lastTick = tick;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Marks the end of the recording and closes the replay file.
+     *
+     * @param tick The last simulation tick that was run.
+     */
+    public synchronized void close(long tick) {
+        if (closed) {
+            return;
+        }
+        try {
+            writeVarint(tick - lastTick);
+            writeVarint(END_OF_REPLAY);
+            out.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+        closed = true;
+    }
+
+    /**
+     * Stops recording after the replay file could not be written to.
+     *
+     * @param e The error that stopped the recording.
+     */
+    private void fail(IOException e) {
+        System.out.println("ERROR: Could not write to replay file "
+            + replayFile + ", stopped recording");
+        System.out.println(e.getMessage());
+        closed = true;
+    }
+
+    /**
+     * Zigzag encodes a signed number, so that numbers close to zero have
+     * small encodings whichever their sign.
+     *
+     * @param value The number to encode.
+     * @return The encoded number.
+     */
+    private static long zigzag(int value) {
+        return ((long) value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Writes a non-negative number as a variable length integer.
+     *
+     * @param value The number to write.
+     * @throws IOException If the number could not be written.
+     */
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
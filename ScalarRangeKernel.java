@@ -0,0 +1,36 @@
+/**
+ * Class to check monster centers against a range one at a time.
+ * This is the plain loop that the vectorized kernel is measured against, and
+ * is used whenever the vector kernel is not available.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class ScalarRangeKernel implements RangeKernel {
+    /**
+     * Finds every monster center within a squared distance of a point.
+     *
+     * @param centerX The x coordinates of the monster centers.
+     * @param centerY The y coordinates of the monster centers.
+     * @param count How many monster centers there are.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @param rangeSquared The squared distance to check within.
+     * @param candidates Array to write the indices of the monsters found
+     * into.
+     * @return How many monsters were found.
+     */
+    @Override
+    public int findCandidates(float[] centerX, float[] centerY, int count,
+        float x, float y, float rangeSquared, int[] candidates) {
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            float dx = centerX[i] - x;
+            float dy = centerY[i] - y;
+            if (dx * dx + dy * dy <= rangeSquared) {
+                candidates[found++] = i;
+            }
+        }
+        return found;
+    }
+}
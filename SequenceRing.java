@@ -0,0 +1,182 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class to hold the slot bookkeeping shared by the game's bounded, lock-free
+ * rings.
+ * Any number of threads may offer items at once, but only one thread may
+ * take them out. Each slot in the ring carries a sequence number that tells
+ * producers when it is free to write and the consumer when it is ready to
+ * read, so neither side ever takes a lock. When the ring is full, offers fail
+ * instead of waiting and are counted as overflows. Subclasses keep the items
+ * themselves in whatever arrays suit them, and only have to copy them in
+ * between claiming and publishing a slot, and out between peeking at and
+ * releasing one.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public abstract class SequenceRing {
+    private AtomicLongArray sequences;
+    private int capacity;
+    private int mask;
+    private AtomicLong tail;
+    private AtomicLong overflowCount;
+    private volatile long head;
+
+    /**
+     * Constructs a new SequenceRing with room for at least the given number
+     * of items. The capacity is rounded up to a power of two.
+     *
+     * @param minimumCapacity The least number of items the ring can hold.
+     */
+    protected SequenceRing(int minimumCapacity) {
+        capacity = 1;
+        while (capacity < minimumCapacity) {
+            capacity <<= 1;
+        }
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+        tail = new AtomicLong(0);
+        overflowCount = new AtomicLong(0);
+        head = 0;
+    }
+
+    /**
+     * Returns how many items the ring can hold.
+     *
+     * @return How many items the ring can hold.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns roughly how many items are waiting in the ring.
+     *
+     * @return Roughly how many items are waiting in the ring.
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Returns how many items have been turned away because the ring was
+     * full.
+     *
+     * @return How many items have been turned away.
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     * Returns the slot a position in the ring falls on.
+     *
+     * @param position The position.
+     * @return The slot the position falls on.
+     */
+    protected int getSlot(long position) {
+        return (int) position & mask;
+    }
+
+    /**
+     * Claims the next free slot for a producer. Safe to call from any number
+     * of threads. The producer must fill the slot in and then publish it.
+     *
+     * @return The position of the claimed slot, or -1 if the ring was full.
+     */
+    protected long claim() {
+        long position = tail.get();
+        while (true) {
+            int index = getSlot(position);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+				// The slot is free, try to claim it
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+				// The consumer has not freed this slot yet, so we are full
+                overflowCount.incrementAndGet();
+                return -1;
+            } else {
+				// Another producer got here first, try the next slot
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Hands a claimed slot that has been filled in over to the consumer.
+     *
+     * @param position The position returned by claim.
+     */
+    protected void publish(long position) {
+        sequences.lazySet(getSlot(position), position + 1);
+    }
+
+    /**
+     * Finds a waiting item without taking it out. Must only be called from
+     * the consuming thread.
+     *
+     * @param offset How many items past the oldest one to look.
+     * @return The slot the item is in, or -1 if there are not that many
+     * items waiting.
+     */
+    protected int peekSlot(int offset) {
+        long position = head + offset;
+        int index = getSlot(position);
+        if (sequences.get(index) != position + 1) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * Frees the oldest waiting items' slots for producers to reuse. Must
+     * only be called from the consuming thread, and only for items that
+     * peekSlot has found.
+     *
+     * @param count How many of the oldest items to free.
+     */
+    protected void release(int count) {
+        long position = head;
+        for (int i = 0; i < count; i++) {
+            clearSlot(getSlot(position));
+            sequences.lazySet(getSlot(position), position + capacity);
+            position++;
+        }
+        head = position;
+    }
+
+    /**
+     * Lets go of whatever a slot holds just before it is freed, so a ring of
+     * objects does not keep them alive. Does nothing by default.
+     *
+     * @param index The slot being freed.
+     */
+    protected void clearSlot(int index) {
+        // Nothing to let go of for rings of primitives
+    }
+
+    /**
+     * Throws away every item waiting in the ring. Must only be called from
+     * the consuming thread.
+     *
+     * @return How many items were thrown away.
+     */
+    public int clear() {
+        int count = 0;
+        while (peekSlot(count) >= 0) {
+            count++;
+        }
+        release(count);
+        return count;
+    }
+}
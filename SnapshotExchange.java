@@ -0,0 +1,70 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class to hand render snapshots from the simulation to the renderer.
+ * Three snapshots are passed around: the simulation fills the back one, the
+ * renderer draws the front one, and the third sits in the middle holding the
+ * most recently published frame. Publishing and picking up a frame are each a
+ * single atomic swap with the middle snapshot, so neither side ever waits for
+ * the other; if the simulation publishes faster than the renderer draws, the
+ * renderer just skips to the newest frame.
+ * Only one thread may publish and only one thread may acquire.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class SnapshotExchange {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private RenderSnapshot[] snapshots;
+    private AtomicInteger middle;
+    private int back;
+    private int front;
+
+    /**
+     * Constructs a new SnapshotExchange with three empty snapshots.
+     */
+    public SnapshotExchange() {
+        snapshots = new RenderSnapshot[3];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new RenderSnapshot();
+        }
+        back = 0;
+        middle = new AtomicInteger(1);
+        front = 2;
+    }
+
+    /**
+     * Returns the snapshot the simulation should fill in next. Must only be
+     * called from the publishing thread.
+     *
+     * @return The snapshot to fill in.
+     */
+    public RenderSnapshot getBackSnapshot() {
+        return snapshots[back];
+    }
+
+    /**
+     * Publishes the back snapshot as the newest frame and takes the old
+     * middle snapshot as the new back one. Must only be called from the
+     * publishing thread.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Returns the newest published frame. The snapshot belongs to the
+     * renderer until the next call, and is not changed in the meantime. Must
+     * only be called from the acquiring thread.
+     *
+     * @return The newest published frame.
+     */
+    public RenderSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.PriorityQueue;
+
+/**
+ * Class to spawn monsters on simulation time.
+ * Each group of monsters to spawn is one entry in a priority queue ordered by
+ * when its next monster is due: a template to spawn from, how many are left to
+ * spawn and how long to wait between them. Every tick the simulation hands
+ * over the current simulation time, and every group that has come due spawns
+ * all of the monsters it owes in one batch, however many that is, before
+ * going back into the queue for its next one. Since it only follows the time
+ * it is given, spawning pauses and speeds up along with the simulation, and a
+ * group spawning thousands of monsters a second is still only one batch per
+ * tick.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class SpawnScheduler {
+	// How far past a spawn time the clock can be and still count as having
+	// reached it, to make up for rounding in the running sum of ticks
+    private static final double TIME_EPSILON = 1e-9;
+
+    private PriorityQueue<SpawnGroup> groups;
+    private long nextSequence;
+    private int pendingCount;
+
+    /**
+     * Class to hold a group of monsters waiting to be spawned.
+     *
+     * @author Zachary Peterson
+     * @version 1.0
+     */
+    private static class SpawnGroup implements Comparable<SpawnGroup> {
+        private double nextTime;
+        private long sequence;
+        private Monster template;
+        private int remaining;
+        private double interval;
+
+        /**
+         * Constructs a new SpawnGroup.
+         *
+         * @param nextTime When the first monster is due.
+         * @param sequence Breaks ties between groups due at the same time,
+         * so that they spawn in the order they were scheduled.
+         * @param template The monster to spawn the group from.
+         * @param remaining How many monsters to spawn.
+         * @param interval How long to wait between monsters.
+         */
+        public SpawnGroup(double nextTime, long sequence, Monster template,
+            int remaining, double interval) {
+            this.nextTime = nextTime;
+            this.sequence = sequence;
+            this.template = template;
+            this.remaining = remaining;
+            this.interval = interval;
+        }
+
+        /**
+         * Orders groups by when their next monster is due.
+         *
+         * @param other The group to compare with.
+         * @return Less than 0 if this group is due first, more than 0 if the
+         * other group is.
+         */
+        @Override
+        public int compareTo(SpawnGroup other) {
+            int order = Double.compare(nextTime, other.nextTime);
+            if (order == 0) {
+                order = Long.compare(sequence, other.sequence);
+            }
+            return order;
+        }
+    }
+
+    /**
+     * Constructs a new SpawnScheduler with nothing scheduled.
+     */
+    public SpawnScheduler() {
+        groups = new PriorityQueue<SpawnGroup>();
+        nextSequence = 0;
+        pendingCount = 0;
+    }
+
+    /**
+     * Schedules a group of monsters to be spawned.
+     *
+     * @param firstTime The simulation time the first monster is due at.
+     * @param template The monster to spawn the group from.
+     * @param count How many monsters to spawn.
+     * @param interval How long to wait between monsters, in seconds. With 0
+     * the whole group spawns at once.
+     */
+    public void schedule(double firstTime, Monster template, int count,
+        double interval) {
+        if (count <= 0) {
+            return;
+        }
+        groups.add(new SpawnGroup(firstTime, nextSequence++, template, count,
+            Math.max(0.0, interval)));
+        pendingCount += count;
+    }
+
+    /**
+     * Drops every group still waiting to be spawned.
+     */
+    public void clear() {
+        groups.clear();
+        pendingCount = 0;
+    }
+
+    /**
+     * Returns how many monsters are still waiting to be spawned.
+     *
+     * @return How many monsters are still waiting to be spawned.
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Spawns every monster that is due by the given time.
+     *
+     * @param now The current simulation time.
+     * @param monsters The store to spawn the monsters into.
+     * @return How many monsters were spawned.
+     */
+    public int spawnDue(double now, MonsterStore monsters) {
+        int spawned = 0;
+        SpawnGroup group;
+        while ((group = groups.peek()) != null
+            && group.nextTime <= now + TIME_EPSILON) {
+            groups.poll();
+
+			// Work out how many of the group's monsters have come due since
+			// its last spawn, and spawn them all in one go
+            int due = group.remaining;
+            if (group.interval > 0) {
+                double behind = (now + TIME_EPSILON - group.nextTime)
+                    / group.interval;
+                due = (int) Math.min(group.remaining, Math.floor(behind) + 1);
+            }
+            monsters.spawn(group.template, due);
+            spawned += due;
+            pendingCount -= due;
+
+            group.remaining -= due;
+            if (group.remaining > 0) {
+                group.nextTime += due * group.interval;
+                groups.add(group);
+            }
+        }
+        return spawned;
+    }
+}
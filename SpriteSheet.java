@@ -0,0 +1,197 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/**
+ * Class to hold the pre-rendered frames of a sprite sheet.
+ * Every cell of the sheet is sliced out once and rotated into a fixed number
+ * of angle buckets up front, so drawing a sprite at any rotation is just a
+ * lookup. Sheets are shared by every sprite that uses the same image.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class SpriteSheet {
+    public static final int DEFAULT_ROTATION_BUCKETS = 64;
+
+    private static final int PLACEHOLDER_SIZE = 16;
+
+    private static HashMap<String, SpriteSheet> loadedSheets
+        = new HashMap<String, SpriteSheet>();
+    private static int rotationBuckets = Integer.getInteger(
+        "towerdefense.rotationBuckets", DEFAULT_ROTATION_BUCKETS);
+
+    private int xCells;
+    private int yCells;
+    private int buckets;
+    private BufferedImage[][] frames;
+    private int[] frameWidths;
+    private int[] frameHeights;
+
+    /**
+     * Constructs a new SpriteSheet, slicing and rotating every frame.
+     *
+     * @param sheetImage The sprite sheet image to slice up.
+     * @param cellsInXDirection How many cells there are in the x direction.
+     * @param cellsInYDirection How many cells there are in the y direction.
+     * @param rotationBuckets How many angles to pre-rotate each cell to.
+     */
+    public SpriteSheet(BufferedImage sheetImage, int cellsInXDirection,
+        int cellsInYDirection, int rotationBuckets) {
+        this.xCells = cellsInXDirection;
+        this.yCells = cellsInYDirection;
+        this.buckets = rotationBuckets;
+        this.frames = new BufferedImage[xCells * yCells][buckets];
+        this.frameWidths = new int[xCells * yCells * buckets];
+        this.frameHeights = new int[xCells * yCells * buckets];
+
+        int cellWidth = sheetImage.getWidth() / xCells;
+        int cellHeight = sheetImage.getHeight() / yCells;
+        for (int cellY = 0; cellY < yCells; cellY++) {
+            for (int cellX = 0; cellX < xCells; cellX++) {
+                BufferedImage cell = sheetImage.getSubimage(cellX * cellWidth,
+                    cellY * cellHeight, cellWidth, cellHeight);
+                for (int bucket = 0; bucket < buckets; bucket++) {
+                    AffineTransform tx = AffineTransform.getRotateInstance(
+                        bucket * 2 * Math.PI / buckets, cellWidth / 2,
+                        cellHeight / 2);
+                    AffineTransformOp op = new AffineTransformOp(tx,
+                        AffineTransformOp.TYPE_BILINEAR);
+                    int index = cellY * xCells + cellX;
+                    frames[index][bucket] = op.filter(cell, null);
+                    frameWidths[index * buckets + bucket]
+                        = frames[index][bucket].getWidth();
+                    frameHeights[index * buckets + bucket]
+                        = frames[index][bucket].getHeight();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the shared sprite sheet for an image file, loading and
+     * rendering it the first time it is asked for. If the image cannot be
+     * read, an error is printed and a single frame placeholder sheet is used
+     * in its place, so the game can carry on without it.
+     *
+     * @param fileName The image file holding the sprite sheet.
+     * @param cellsInXDirection How many cells there are in the x direction.
+     * @param cellsInYDirection How many cells there are in the y direction.
+     * @return The shared sprite sheet, or a placeholder if the image could
+     * not be read.
+     */
+    public static synchronized SpriteSheet getSheet(String fileName,
+        int cellsInXDirection, int cellsInYDirection) {
+        String key = fileName + "#" + cellsInXDirection + "x"
+            + cellsInYDirection;
+        SpriteSheet sheet = loadedSheets.get(key);
+        if (sheet == null) {
+            BufferedImage sheetImage
+                = ImageCache.getInstance().getImage(fileName);
+            if (sheetImage != null) {
+                sheet = new SpriteSheet(sheetImage, cellsInXDirection,
+                    cellsInYDirection, rotationBuckets);
+            } else {
+                System.out.println("ERROR: Using a placeholder for sprite"
+                    + " sheet " + fileName);
+                sheet = new SpriteSheet(createPlaceholder(), 1, 1,
+                    rotationBuckets);
+            }
+            loadedSheets.put(key, sheet);
+        }
+        return sheet;
+    }
+
+    /**
+     * Creates a plain square image to stand in for a sprite sheet that could
+     * not be read.
+     *
+     * @return The placeholder image.
+     */
+    private static BufferedImage createPlaceholder() {
+        BufferedImage placeholder = new BufferedImage(PLACEHOLDER_SIZE,
+            PLACEHOLDER_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = placeholder.createGraphics();
+        g.setColor(Color.MAGENTA);
+        g.fillRect(0, 0, PLACEHOLDER_SIZE, PLACEHOLDER_SIZE);
+        g.dispose();
+        return placeholder;
+    }
+
+    /**
+     * Returns how many cells there are in the x direction.
+     *
+     * @return How many cells there are in the x direction.
+     */
+    public int getXCells() {
+        return xCells;
+    }
+
+    /**
+     * Returns how many cells there are in the y direction.
+     *
+     * @return How many cells there are in the y direction.
+     */
+    public int getYCells() {
+        return yCells;
+    }
+
+    /**
+     * Returns how many cells there are in the sheet.
+     *
+     * @return How many cells there are in the sheet.
+     */
+    public int getCellCount() {
+        return xCells * yCells;
+    }
+
+    /**
+     * Returns the angle bucket closest to a rotation.
+     *
+     * @param rotation The rotation in radians.
+     * @return The angle bucket closest to the rotation.
+     */
+    public int getBucket(double rotation) {
+        int bucket = (int) Math.round(rotation / (2 * Math.PI) * buckets)
+            % buckets;
+        return bucket < 0 ? bucket + buckets : bucket;
+    }
+
+    /**
+     * Returns a pre-rendered frame.
+     *
+     * @param cell The index of the cell, counting across then down.
+     * @param bucket The angle bucket of the frame.
+     * @return The pre-rendered frame.
+     */
+    public BufferedImage getFrame(int cell, int bucket) {
+        return frames[cell][bucket];
+    }
+
+    /**
+     * Returns the width of a pre-rendered frame without going through the
+     * image, for code that checks it for a lot of sprites every tick.
+     *
+     * @param cell The index of the cell, counting across then down.
+     * @param bucket The angle bucket of the frame.
+     * @return The width of the frame.
+     */
+    public int getFrameWidth(int cell, int bucket) {
+        return frameWidths[cell * buckets + bucket];
+    }
+
+    /**
+     * Returns the height of a pre-rendered frame without going through the
+     * image, for code that checks it for a lot of sprites every tick.
+     *
+     * @param cell The index of the cell, counting across then down.
+     * @param bucket The angle bucket of the frame.
+     * @return The height of the frame.
+     */
+    public int getFrameHeight(int cell, int bucket) {
+        return frameHeights[cell * buckets + bucket];
+    }
+}
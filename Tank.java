@@ -1,8 +1,3 @@
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
-
 /**
  * Class to represent a tank monster.
  * Tanks appear every 5 waves, have massive amounts of health, do lots of
@@ -22,6 +17,7 @@ public class Tank extends Monster {
     public Tank(int currentWave) {
         super(currentWave);
 
+        typeId = TANK_TYPE;
         speed = 20.0;
         health = 800.0 * (currentWave / 5);
 
@@ -29,13 +25,7 @@ public class Tank extends Monster {
         pointValue = 1000;
         moneyValue = 1000;
 
-
-        try {
-            BufferedImage spriteImage = ImageIO.read(new File("tank.png"));
-            mySprite = new Sprite(spriteImage, 2, 1, 2);
-        } catch (IOException e) {
-            System.out.println("ERROR: Could not read image for monster");
-            System.out.println(e.getMessage());
-        }
+        mySheet = SpriteSheet.getSheet("tank.png", 2, 1);
+        framesPerSecond = 2;
     }
 }
@@ -1,14 +1,5 @@
-import java.awt.BasicStroke;
 import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.Graphics;
-import java.awt.Point;
-import java.awt.RenderingHints;
-import java.awt.geom.Line2D;
 import java.awt.image.BufferedImage;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.Vector;
 
 /**
  * Class to represent the basic Tower in the game.
@@ -23,6 +14,7 @@ public class Tower {
     private int x;
     private int y;
     protected BufferedImage myImage;
+    private OpacityMask myMask;
     protected double damage;
     private boolean canAttack;
     protected double attackRate;
@@ -32,11 +24,9 @@ public class Tower {
     private int laserAlpha;
     private int laserAlphaStart;
     protected double laserDisplayTime;
-    private double currentFadeTime;
-    private Point laserTarget;
-    private Timer startLasing;
-    private Timer startLaserFade;
-    private Timer endLaserFade;
+    private double laserPhaseTime;
+    private int laserTargetX;
+    private int laserTargetY;
     private int myKills;
     protected Color laserColor;
     protected double damagePerKill;
@@ -67,11 +57,7 @@ public class Tower {
         laserAlphaStart = 160;
         laserAlpha = 0;
         laserDisplayTime = 0.15;
-        currentFadeTime = 0.0;
-
-        startLasing = new Timer();
-        startLaserFade = new Timer();
-        endLaserFade = new Timer();
+        laserPhaseTime = 0.0;
 
         myKills = 0;
 
@@ -125,150 +111,172 @@ public class Tower {
         return myImage;
     }
 
+    /**
+     * Returns the opacity mask of the tower's image, used for placement
+     * checks.
+     *
+     * @return The opacity mask of the tower's image.
+     */
+    public OpacityMask getMask() {
+        if (myMask == null) {
+            myMask = OpacityMask.getMask(myImage);
+        }
+        return myMask;
+    }
+
     /**
      * Main update function for this tower.
-     * Requires a Vector of monsters for radius checking and attacking.
+     * Requires the store of monsters and a grid of their centers, built this
+     * tick, for radius checking and attacking.
      *
      * @param dt The time differential to use.
-     * @param monsters Vector containing all of the monsters on the level.
+     * @param monsters Store containing all of the monsters on the level.
+     * @param grid Grid of the monster centers to search for targets in.
      */
-    public void update(double dt, Vector<Monster> monsters) {
-		// Update the drawing of the laser
+    public void update(double dt, MonsterStore monsters, MonsterGrid grid) {
+        int target = aim(dt, grid);
+        if (target != -1) {
+			// Increase the kill count if this tower killed it
+            if (monsters.takeDamage(target, getAttackDamage())) {
+                addKill();
+            }
+        }
+    }
+
+    /**
+     * Updates everything about this tower except for hurting its target.
+     * The laser and the attack timing are updated and, if the tower is ready
+     * to attack, the first monster in range becomes its target. Only this
+     * tower is changed, so different towers can be aimed at the same time.
+     * The caller has to deal the damage to the target and add the kill if it
+     * died, which is what update does.
+     *
+     * @param dt The time differential to use.
+     * @param grid Grid of the monster centers to search for targets in.
+     * @return The slot of the monster to attack, or -1 if the tower is not
+     * attacking this tick.
+     */
+    public int aim(double dt, MonsterGrid grid) {
+		// Update the drawing of the laser. The laser shows at full strength
+		// for the first half of its display time and fades out over the
+		// second half, all on simulation time
         if (displayLaser) {
+            laserPhaseTime += dt;
+            if (!isLaserFading && laserPhaseTime >= laserDisplayTime / 2) {
+                isLaserFading = true;
+                laserPhaseTime -= laserDisplayTime / 2;
+            }
             if (isLaserFading) {
-                currentFadeTime += dt;
                 laserAlpha = (int) (laserAlphaStart
-                    - (currentFadeTime / (laserDisplayTime / 2))
+                    - (laserPhaseTime / (laserDisplayTime / 2))
                     * laserAlphaStart);
+                if (laserPhaseTime >= laserDisplayTime / 2) {
+                    isLaserFading = false;
+                    displayLaser = false;
+                }
             }
         }
-		
+
 		// Update our attack timing so that we can attack again if the attack
 		// has had proper time to cool down
         timeSinceLastAttack += dt;
         if (!canAttack && timeSinceLastAttack >= attackRate) {
             canAttack = true;
         }
-        if (canAttack) {
-			// Find a target to attack and attack it if possible
-            boolean hasAttacked = false;
-            int i = 0;
-            while (!hasAttacked && i < monsters.size()) {
-                if (Math.sqrt(Math.pow((monsters.get(i).getX()
-                    + monsters.get(i).getWidth() / 2)
-                    - (x + myImage.getWidth() / 2), 2)
-                    + Math.pow((monsters.get(i).getY()
-                    + monsters.get(i).getHeight() / 2)
-                    - (y + myImage.getHeight() / 2), 2)) <= range) {
-                    boolean killedMonster = monsters.get(i).takeDamage(damage
-                        + damagePerKill * myKills);
-                    hasAttacked = true;
-                    timeSinceLastAttack = 0.0;
-                    canAttack = false;
+        if (!canAttack) {
+            return -1;
+        }
 
-					// Increase the kill count if this tower killed it
-                    if (killedMonster) {
-                        myKills++;
-                    }
+		// Find the first monster in range and attack it if there is one
+        int i = grid.findFirstInRange(x + myImage.getWidth() / 2,
+            y + myImage.getHeight() / 2, range);
+        if (i != -1) {
+            timeSinceLastAttack = 0.0;
+            canAttack = false;
 
-					// Set the target point for drawing the laser
-                    laserTarget = new Point((int) (monsters.get(i).getX()
-                        + monsters.get(i).getWidth() / 2),
-                        (int) (monsters.get(i).getY()
-                        + monsters.get(i).getHeight() / 2));
-                    startLasing.schedule(new StartLasingTask(), 0);
-                }
-                i++;
-            }
+			// Set the target point for drawing the laser and start it
+            laserTargetX = (int) grid.getCenterX(i);
+            laserTargetY = (int) grid.getCenterY(i);
+            displayLaser = true;
+            isLaserFading = false;
+            laserAlpha = laserAlphaStart;
+            laserPhaseTime = 0.0;
         }
+        return i;
     }
 
     /**
-     * Renders the tower and all graphics associated with it.
-     * This includes the laser and the kill count.
+     * Returns how much damage this tower's attacks do, including the bonus
+     * for the kills it has made.
      *
-     * @param g The Graphics to draw with.
+     * @return How much damage this tower's attacks do.
      */
-    public void render(Graphics g) {
-        Color oldColor = g.getColor();
-        Graphics2D g2 = (Graphics2D) g;
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-            RenderingHints.VALUE_ANTIALIAS_ON);
-        String killNumber = "" + myKills;
-        g2.drawString(killNumber, x, y);
-        if (displayLaser) {
-            g2.setStroke(new BasicStroke(3));
-            g2.setColor(new Color(laserColor.getRed(), laserColor.getGreen(),
-                laserColor.getBlue(), (laserAlpha > 0 ? laserAlpha : 0)));
-            g2.draw(new Line2D.Double(x + myImage.getWidth() / 2,
-                y + myImage.getHeight() / 2, laserTarget.getX(),
-                laserTarget.getY()));
-        }
-        g2.setColor(new Color(255, 255, 255, 40));
-        g2.fillOval(x - range + myImage.getWidth() / 2,
-            y - range + myImage.getHeight() / 2, range * 2, range * 2);
-        g2.setColor(oldColor);
-        g2.drawImage(myImage, x, y, null);
+    public double getAttackDamage() {
+        return damage + damagePerKill * myKills;
+    }
+
+    /**
+     * Adds a kill to this tower's count, which makes its attacks stronger.
+     */
+    public void addKill() {
+        myKills++;
     }
 
     /**
-     * Private timer class to call when the laser should start drawing.
+     * Returns how many monsters this tower has killed.
      *
-     * @author Zachary Peterson
-     * @version 1.0
+     * @return How many monsters this tower has killed.
      */
-    private class StartLasingTask extends TimerTask {
-        /**
-         * Runs this timer.
-         * Tells the tower to display the laser, it is not fading, and that
-         * the laser alpha should be set to its maximum. Also schedules a fade
-         * task to be run later.
-         */
-        public void run() {
-            displayLaser = true;
-            isLaserFading = false;
-            laserAlpha = laserAlphaStart;
+    public int getKills() {
+        return myKills;
+    }
+
+    /**
+     * Returns how long it has been since this tower last attacked, which is
+     * how far it is through cooling down.
+     *
+     * @return How long it has been since this tower last attacked.
+     */
+    public double getTimeSinceLastAttack() {
+        return timeSinceLastAttack;
+    }
 
-            startLaserFade.schedule(new StartLaserFadeTask(),
-                (int) (laserDisplayTime / 2 * 1000));
+    /**
+     * Returns the alpha the laser is currently drawn with.
+     *
+     * @return The alpha of the laser, or -1 if it is not showing.
+     */
+    public int getLaserAlpha() {
+        if (!displayLaser) {
+            return -1;
         }
+        return laserAlpha > 0 ? laserAlpha : 0;
     }
 
     /**
-     * Private timer class to call when the laser should start fading.
+     * Returns the x coordinate the laser is drawn to.
      *
-     * @author Zachary Peterson
-     * @version 1.0
+     * @return The x coordinate the laser is drawn to.
      */
-    private class StartLaserFadeTask extends TimerTask {
-        /**
-         * Runs this timer.
-         * Tells the tower that the laser is fading and resets the fade timer
-         * to use for alpha value calculation.
-         */
-        public void run() {
-            isLaserFading = true;
-            currentFadeTime = 0.0;
+    public int getLaserTargetX() {
+        return laserTargetX;
+    }
 
-            endLaserFade.schedule(new EndLaserFadeTask(),
-                (int) (laserDisplayTime / 2 * 1000));
-        }
+    /**
+     * Returns the y coordinate the laser is drawn to.
+     *
+     * @return The y coordinate the laser is drawn to.
+     */
+    public int getLaserTargetY() {
+        return laserTargetY;
     }
 
     /**
-     * Private timer class to call when the laser should stop displaying.
+     * Returns the color of the laser.
      *
-     * @author Zachary Peterson
-     * @version 1.0
+     * @return The color of the laser.
      */
-    private class EndLaserFadeTask extends TimerTask {
-        /**
-         * Runs this timer.
-         * Tells the tower that the laser should not display or fade.
-         */
-        public void run() {
-            isLaserFading = false;
-            displayLaser = false;
-        }
+    public Color getLaserColor() {
+        return laserColor;
     }
 }
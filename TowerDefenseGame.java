@@ -20,16 +20,33 @@ public class TowerDefenseGame {
 		// Create a new game control panel and add it to the main frame
 		// Also create a game panel and add it
         GameControlPanel gCPanel = new GameControlPanel();
-        GamePanel gPanel = new GamePanel();
+        GameSimulation simulation = new GameSimulation();
+        int tickRate = Integer.getInteger("towerdefense.tickRate",
+            GameLoop.DEFAULT_TICK_RATE);
+        simulation.setRecorder(ReplayRecorder.fromProperty(simulation,
+            tickRate));
+        simulation.setTimeScale(Integer.getInteger("towerdefense.timeScale",
+            1));
+        GamePanel gPanel = new GamePanel(simulation);
         mainFrame.add(gCPanel, BorderLayout.WEST);
         mainFrame.add(gPanel, BorderLayout.CENTER);
         mainFrame.pack();
         mainFrame.setResizable(false);
         mainFrame.setVisible(true);
+        gPanel.startRendering();
+
+		// Publish the game's metrics so they can be watched over JMX
+        simulation.getMetrics().setRenderLoop(gPanel.getRenderLoop());
+        simulation.getMetrics().register();
+
+		// Create the game loop, ticking at the configured rate
+        GameLoop gameLoop = new GameLoop(simulation, gPanel, tickRate,
+            Integer.getInteger("towerdefense.maxTicksPerFrame",
+                GameLoop.DEFAULT_MAX_TICKS_PER_FRAME));
 
 		// Create the game thread and game control panel threads, then
 		// start both of them
-        Thread gamePanelThread = new Thread(gPanel);
+        Thread gamePanelThread = new Thread(gameLoop);
         gamePanelThread.start();
         Thread gameControlPanelThread = new Thread(gCPanel);
         gameControlPanelThread.start();
@@ -0,0 +1,146 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class to run every tower's part of a simulation tick.
+ * In sequential mode each tower is simply updated in turn. In parallel mode
+ * the towers are split into chunks that are aimed on the fork-join pool at the
+ * same time, with each tower writing the monster it wants to attack into its
+ * own entry of an intent buffer. Once every chunk is done the intents are
+ * applied on the simulation thread in tower order, which deals exactly the
+ * same damage in exactly the same order as sequential mode, so both modes
+ * give bit-identical results. This works because a tower only picks its
+ * target by position, which damage never changes.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class TowerPhase {
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private boolean parallel;
+    private int chunkSize;
+    private ForkJoinPool pool;
+    private int[] targets;
+
+    /**
+     * Constructs a new TowerPhase, reading whether to run in parallel from
+     * the towerdefense.parallelTowers system property and the number of
+     * towers aimed per task from towerdefense.towerChunkSize.
+     */
+    public TowerPhase() {
+        this(Boolean.getBoolean("towerdefense.parallelTowers"),
+            Integer.getInteger("towerdefense.towerChunkSize",
+                DEFAULT_CHUNK_SIZE));
+    }
+
+    /**
+     * Constructs a new TowerPhase.
+     *
+     * @param parallel Whether to aim the towers in parallel.
+     * @param chunkSize How many towers each parallel task aims.
+     */
+    public TowerPhase(boolean parallel, int chunkSize) {
+        this.parallel = parallel;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pool = ForkJoinPool.commonPool();
+        this.targets = new int[16];
+    }
+
+    /**
+     * Returns whether the towers are aimed in parallel.
+     *
+     * @return Whether the towers are aimed in parallel.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Updates every tower for one tick.
+     *
+     * @param dt The time differential to use.
+     * @param towers All of the towers on the level.
+     * @param monsters Store containing all of the monsters on the level.
+     * @param grid Grid of the monster centers, built this tick.
+     */
+    public void update(double dt, EntityBag<Tower> towers,
+        MonsterStore monsters, MonsterGrid grid) {
+        int count = towers.size();
+		// Not worth handing out to other threads unless there is more than
+		// one chunk of work
+        if (!parallel || count <= chunkSize) {
+            for (int i = 0; i < count; i++) {
+                towers.get(i).update(dt, monsters, grid);
+            }
+            return;
+        }
+
+        if (targets.length < count) {
+            targets = new int[Math.max(count, targets.length * 2)];
+        }
+        pool.invoke(new AimTask(dt, towers, grid, 0, count));
+
+		// Apply the intents in tower order, just like sequential mode
+        for (int i = 0; i < count; i++) {
+            int target = targets[i];
+            if (target != -1) {
+                Tower t = towers.get(i);
+                if (monsters.takeDamage(target, t.getAttackDamage())) {
+                    t.addKill();
+                }
+            }
+        }
+    }
+
+    /**
+     * Private inner class to aim a range of towers, splitting the range in
+     * half until it is no bigger than a chunk.
+     *
+     * @author Zachary Peterson
+     * @version 1.0
+     */
+    private class AimTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private double dt;
+        private EntityBag<Tower> towers;
+        private MonsterGrid grid;
+        private int start;
+        private int end;
+
+        /**
+         * Constructs a new AimTask for the towers from start up to end.
+         *
+         * @param dt The time differential to use.
+         * @param towers All of the towers on the level.
+         * @param grid Grid of the monster centers, built this tick.
+         * @param start The index of the first tower to aim.
+         * @param end One past the index of the last tower to aim.
+         */
+        public AimTask(double dt, EntityBag<Tower> towers, MonsterGrid grid,
+            int start, int end) {
+            this.dt = dt;
+            this.towers = towers;
+            this.grid = grid;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Aims the towers, or splits them between two new tasks.
+         */
+        @Override
+        protected void compute() {
+            if (end - start <= chunkSize) {
+                for (int i = start; i < end; i++) {
+                    targets[i] = towers.get(i).aim(dt, grid);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new AimTask(dt, towers, grid, start, middle),
+                new AimTask(dt, towers, grid, middle, end));
+        }
+    }
+}
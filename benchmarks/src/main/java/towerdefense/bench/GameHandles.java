@@ -0,0 +1,270 @@
+package towerdefense.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Class to hold method handles into the game's classes.
+ * The game lives in the unnamed package, which code in a named package such as
+ * the benchmarks cannot refer to, and JMH will not run benchmarks from the
+ * unnamed package. The handles are looked up once and kept in static final
+ * fields, so the JIT treats them as constants and inlines straight through
+ * them; calling the game through them costs the same as calling it directly.
+ * Every reference type is erased to Object, so call sites pass and receive
+ * plain Objects.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+final class GameHandles {
+    static final MethodHandle NEW_SIMULATION
+        = constructor("GameSimulation");
+    static final MethodHandle CHANGE_LEVEL
+        = virtual("GameSimulation", "changeLevel", void.class, int.class);
+    static final MethodHandle GET_MONSTERS
+        = virtual("GameSimulation", "getMonsters", type("MonsterStore"));
+    static final MethodHandle GET_PATH_IMAGE
+        = virtual("GameSimulation", "getPathImage",
+            type("java.awt.image.BufferedImage"));
+
+    static final MethodHandle NEW_MONSTER
+        = constructor("Monster", int.class);
+    static final MethodHandle NEW_TANK
+        = constructor("Tank", int.class);
+
+    static final MethodHandle STORE_SIZE
+        = virtual("MonsterStore", "size", int.class);
+    static final MethodHandle STORE_SPAWN
+        = virtual("MonsterStore", "spawn", int.class, type("Monster"));
+    static final MethodHandle STORE_UPDATE
+        = virtual("MonsterStore", "update", void.class, double.class);
+    static final MethodHandle STORE_REMOVE_DEAD
+        = virtual("MonsterStore", "removeDead", int.class);
+
+    static final MethodHandle NEW_GRID
+        = constructor("MonsterGrid", int.class, int.class, int.class);
+    static final MethodHandle NEW_GRID_WITH_KERNEL
+        = constructor("MonsterGrid", int.class, int.class, int.class,
+            type("RangeKernel"));
+    static final MethodHandle CREATE_KERNEL
+        = staticMethod("MonsterGrid", "createKernel", type("RangeKernel"),
+            String.class);
+    static final MethodHandle GRID_REBUILD
+        = virtual("MonsterGrid", "rebuild", void.class, type("MonsterStore"));
+    static final MethodHandle GRID_FIND_FIRST
+        = virtual("MonsterGrid", "findFirstInRange", int.class,
+            double.class, double.class, double.class);
+
+    static final MethodHandle NEW_BASIC_TOWER
+        = constructor("BasicTower", int.class, int.class);
+    static final MethodHandle NEW_FAST_TOWER
+        = constructor("FastTower", int.class, int.class);
+    static final MethodHandle NEW_MEGA_TOWER
+        = constructor("MegaTower", int.class, int.class);
+    static final MethodHandle TOWER_UPDATE
+        = virtual("Tower", "update", void.class, double.class,
+            type("MonsterStore"), type("MonsterGrid"));
+    static final MethodHandle TOWER_GET_X
+        = virtual("Tower", "getX", int.class);
+    static final MethodHandle TOWER_GET_Y
+        = virtual("Tower", "getY", int.class);
+    static final MethodHandle TOWER_GET_RANGE
+        = virtual("Tower", "getRange", int.class);
+    static final MethodHandle TOWER_GET_MASK
+        = virtual("Tower", "getMask", type("OpacityMask"));
+
+    static final MethodHandle NEW_ENTITY_BAG
+        = constructor("EntityBag");
+    static final MethodHandle BAG_ADD
+        = virtual("EntityBag", "add", void.class, Object.class);
+    static final MethodHandle NEW_TOWER_PHASE
+        = constructor("TowerPhase", boolean.class, int.class);
+    static final MethodHandle TOWER_PHASE_UPDATE
+        = virtual("TowerPhase", "update", void.class, double.class,
+            type("EntityBag"), type("MonsterStore"), type("MonsterGrid"));
+
+    static final MethodHandle GET_MASK
+        = staticMethod("OpacityMask", "getMask", type("OpacityMask"),
+            type("java.awt.image.BufferedImage"));
+    static final MethodHandle MASK_GET_WIDTH
+        = virtual("OpacityMask", "getWidth", int.class);
+    static final MethodHandle MASK_GET_HEIGHT
+        = virtual("OpacityMask", "getHeight", int.class);
+    static final MethodHandle CHECK_TOWER_PATH
+        = staticMethod("ImageHelper", "checkTowerPathIntersection",
+            boolean.class, type("OpacityMask"), type("java.awt.Point"),
+            type("OpacityMask"));
+    static final MethodHandle CHECK_TOWER_TOWER
+        = staticMethod("ImageHelper", "checkTowerTowerIntersection",
+            boolean.class, type("OpacityMask"), type("java.awt.Point"),
+            type("OpacityMask"), type("java.awt.Point"));
+
+    static final MethodHandle GET_SHEET
+        = staticMethod("SpriteSheet", "getSheet", type("SpriteSheet"),
+            String.class, int.class, int.class);
+    static final MethodHandle SHEET_GET_BUCKET
+        = virtual("SpriteSheet", "getBucket", int.class, double.class);
+    static final MethodHandle SHEET_GET_FRAME
+        = virtual("SpriteSheet", "getFrame",
+            type("java.awt.image.BufferedImage"), int.class, int.class);
+
+    static final MethodHandle GET_QUEUE
+        = staticMethod("MessageQueue", "getInstance", type("MessageQueue"));
+    static final MethodHandle QUEUE_OFFER
+        = virtual("MessageQueue", "offer", boolean.class, type("Message"));
+    static final MethodHandle QUEUE_POP
+        = virtual("MessageQueue", "pop", type("Message"),
+            type("MessageRecipient"));
+    static final MethodHandle QUEUE_DRAIN_TO
+        = virtual("MessageQueue", "drainTo", int.class,
+            type("MessageRecipient"), type("[LMessage;"));
+    static final MethodHandle NEW_MESSAGE
+        = constructor("Message", type("MessageRecipient"),
+            type("MessageType"), Object.class);
+    static final MethodHandle NEW_MESSAGE_ARRAY
+        = MethodHandles.arrayConstructor(type("[LMessage;"))
+            .asType(MethodType.methodType(Object.class, int.class));
+
+    static final MethodHandle GET_EVENTS
+        = staticMethod("EventChannel", "getInstance", type("EventChannel"));
+    static final MethodHandle EVENT_SEND
+        = virtual("EventChannel", "send", boolean.class,
+            type("MessageRecipient"), type("MessageType"), long.class);
+    static final MethodHandle EVENT_DRAIN_TO
+        = virtual("EventChannel", "drainTo", int.class,
+            type("MessageRecipient"), int[].class, long[].class);
+    static final MethodHandle EVENT_CLEAR
+        = virtual("EventChannel", "clear", int.class,
+            type("MessageRecipient"));
+    static final MethodHandle MESSAGE_GET_DATA
+        = virtual("Message", "getMessageData", Object.class);
+
+    static final Object GAME_PANEL
+        = enumConstant("MessageRecipient", "GAME_PANEL");
+    static final Object CONTROL_PANEL
+        = enumConstant("MessageRecipient", "CONTROL_PANEL");
+    static final Object DEAL_DAMAGE
+        = enumConstant("MessageType", "DEAL_DAMAGE");
+    static final Object ADD_SCORE
+        = enumConstant("MessageType", "ADD_SCORE");
+
+    private GameHandles() {
+        // Only holds handles, never constructed
+    }
+
+    /**
+     * Empties every recipient's message queue and event channel, so that
+     * messages and events the game sends while being benchmarked never pile
+     * up until they are full.
+     *
+     * @throws Throwable If the queue could not be reached.
+     */
+    static void drainMessages() throws Throwable {
+        Object queue = (Object) GET_QUEUE.invokeExact();
+        while ((Object) QUEUE_POP.invokeExact(queue, GAME_PANEL) != null) {
+            // Drop it
+        }
+        while ((Object) QUEUE_POP.invokeExact(queue, CONTROL_PANEL) != null) {
+            // Drop it
+        }
+        Object events = (Object) GET_EVENTS.invokeExact();
+        int dropped = (int) EVENT_CLEAR.invokeExact(events, GAME_PANEL);
+        dropped = (int) EVENT_CLEAR.invokeExact(events, CONTROL_PANEL);
+    }
+
+    /**
+     * Finds one of the game's classes by name.
+     *
+     * @param name The binary name of the class.
+     * @return The class.
+     */
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Missing game class " + name, e);
+        }
+    }
+
+    /**
+     * Looks up a public constructor.
+     *
+     * @param className The class to construct.
+     * @param parameters The constructor's parameter types.
+     * @return A handle to the constructor with every reference type erased.
+     */
+    private static MethodHandle constructor(String className,
+        Class<?>... parameters) {
+        try {
+            return MethodHandles.publicLookup().findConstructor(
+                type(className), MethodType.methodType(void.class, parameters))
+                .asType(MethodType.methodType(type(className), parameters)
+                    .erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing constructor for "
+                + className, e);
+        }
+    }
+
+    /**
+     * Looks up a public instance method.
+     *
+     * @param className The class declaring the method.
+     * @param name The name of the method.
+     * @param returnType The method's return type.
+     * @param parameters The method's parameter types.
+     * @return A handle to the method with every reference type erased.
+     */
+    private static MethodHandle virtual(String className, String name,
+        Class<?> returnType, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(
+                type(className), name,
+                MethodType.methodType(returnType, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing method " + className
+                + "." + name, e);
+        }
+    }
+
+    /**
+     * Looks up a public static method.
+     *
+     * @param className The class declaring the method.
+     * @param name The name of the method.
+     * @param returnType The method's return type.
+     * @param parameters The method's parameter types.
+     * @return A handle to the method with every reference type erased.
+     */
+    private static MethodHandle staticMethod(String className, String name,
+        Class<?> returnType, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(
+                type(className), name,
+                MethodType.methodType(returnType, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing method " + className
+                + "." + name, e);
+        }
+    }
+
+    /**
+     * Finds one of the constants of one of the game's enums.
+     *
+     * @param className The enum class.
+     * @param name The name of the constant.
+     * @return The constant.
+     */
+    private static Object enumConstant(String className, String name) {
+        for (Object constant : type(className).getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(name)) {
+                return constant;
+            }
+        }
+        throw new IllegalStateException("Missing constant " + className
+            + "." + name);
+    }
+}
@@ -0,0 +1,139 @@
+package towerdefense.bench;
+
+import java.awt.Point;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for the tower placement checks.
+ * A tower is checked against the level's path and against a number of towers
+ * already on the level, at random spots, the same way the placement preview
+ * checks the spot under the mouse.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class IntersectionBenchmark {
+    private static final int SPOTS = 256;
+
+    @Param({"basic", "fast", "mega"})
+    public String towerType;
+
+    @Param({"1", "16", "64"})
+    public int towerCount;
+
+    private Object towerMask;
+    private Object pathMask;
+    private Point[] spots;
+    private Object[] placedMasks;
+    private Point[] placedPositions;
+    private int next;
+
+    /**
+     * Loads the first level and places towers at random.
+     *
+     * @throws Throwable If the level could not be set up.
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Object simulation = LevelFixture.loadLevel();
+        Object pathImage = (Object) GameHandles.GET_PATH_IMAGE.invokeExact(
+            simulation);
+        pathMask = (Object) GameHandles.GET_MASK.invokeExact(pathImage);
+        towerMask = (Object) GameHandles.TOWER_GET_MASK.invokeExact(
+            newTower(towerType, 0, 0));
+
+        Random random = new Random(42);
+        spots = new Point[SPOTS];
+        for (int i = 0; i < SPOTS; i++) {
+            spots[i] = new Point(random.nextInt(560), random.nextInt(560));
+        }
+        String[] types = {"basic", "fast", "mega"};
+        placedMasks = new Object[towerCount];
+        placedPositions = new Point[towerCount];
+        for (int i = 0; i < towerCount; i++) {
+            Object tower = newTower(types[i % types.length],
+                random.nextInt(560), random.nextInt(560));
+            placedMasks[i] = (Object) GameHandles.TOWER_GET_MASK.invokeExact(
+                tower);
+            placedPositions[i] = new Point(
+                (int) GameHandles.TOWER_GET_X.invokeExact(tower),
+                (int) GameHandles.TOWER_GET_Y.invokeExact(tower));
+        }
+    }
+
+    /**
+     * Creates a tower of the given type.
+     *
+     * @param type The type of tower, basic, fast or mega.
+     * @param x The x position of the tower.
+     * @param y The y position of the tower.
+     * @return The new tower.
+     * @throws Throwable If the tower could not be created.
+     */
+    private static Object newTower(String type, int x, int y)
+        throws Throwable {
+        if (type.equals("basic")) {
+            return (Object) GameHandles.NEW_BASIC_TOWER.invokeExact(x, y);
+        } else if (type.equals("fast")) {
+            return (Object) GameHandles.NEW_FAST_TOWER.invokeExact(x, y);
+        }
+        return (Object) GameHandles.NEW_MEGA_TOWER.invokeExact(x, y);
+    }
+
+    /**
+     * Returns the next spot to check, going round the random spots.
+     *
+     * @return The spot to check.
+     */
+    private Point nextSpot() {
+        next = (next + 1) & (SPOTS - 1);
+        return spots[next];
+    }
+
+    /**
+     * Checks a tower against the path.
+     *
+     * @return Whether the tower hit the path.
+     * @throws Throwable If the check could not be reached.
+     */
+    @Benchmark
+    public boolean towerPath() throws Throwable {
+        return (boolean) GameHandles.CHECK_TOWER_PATH.invokeExact(towerMask,
+            (Object) nextSpot(), pathMask);
+    }
+
+    /**
+     * Checks a tower against every placed tower.
+     *
+     * @param blackhole Sink for the results.
+     * @throws Throwable If the check could not be reached.
+     */
+    @Benchmark
+    public void towerTower(Blackhole blackhole) throws Throwable {
+        Point spot = nextSpot();
+        for (int i = 0; i < towerCount; i++) {
+            blackhole.consume((boolean) GameHandles.CHECK_TOWER_TOWER
+                .invokeExact(towerMask, (Object) spot, placedMasks[i],
+                    (Object) placedPositions[i]));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package towerdefense.bench;
+
+/**
+ * Class to set up a level full of monsters for the benchmarks to work on.
+ * The benchmarks have to be run from the game's directory so that the level
+ * files and images can be found.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+final class LevelFixture {
+    static final double TICK = 1.0 / 60.0;
+
+    // A little less than a first wave monster takes to walk the first
+    // level's path, so none of them reach the end while filling
+    private static final double PATH_TIME = 20.0;
+
+    private LevelFixture() {
+        // Only holds helpers, never constructed
+    }
+
+    /**
+     * Creates a simulation on the first level.
+     *
+     * @return The simulation.
+     * @throws Throwable If the simulation could not be created.
+     */
+    static Object loadLevel() throws Throwable {
+        Object simulation = (Object) GameHandles.NEW_SIMULATION.invokeExact();
+        GameHandles.CHANGE_LEVEL.invokeExact(simulation, 1);
+        GameHandles.drainMessages();
+        return simulation;
+    }
+
+    /**
+     * Spawns monsters into a simulation's store one at a time, moving the
+     * store along between spawns so that they end up spread out over the
+     * whole path rather than stacked on the first node.
+     *
+     * @param simulation The simulation to spawn into.
+     * @param template The monster to spawn copies of.
+     * @param count How many monsters to spawn.
+     * @return The simulation's monster store.
+     * @throws Throwable If the monsters could not be spawned.
+     */
+    static Object fill(Object simulation, Object template, int count)
+        throws Throwable {
+        Object store = (Object) GameHandles.GET_MONSTERS.invokeExact(
+            simulation);
+        double spacing = PATH_TIME / count;
+        while ((int) GameHandles.STORE_SIZE.invokeExact(store) < count) {
+            int handle = (int) GameHandles.STORE_SPAWN.invokeExact(store,
+                template);
+            GameHandles.STORE_UPDATE.invokeExact(store, spacing);
+            int removed = (int) GameHandles.STORE_REMOVE_DEAD.invokeExact(
+                store);
+            GameHandles.drainMessages();
+        }
+        return store;
+    }
+}
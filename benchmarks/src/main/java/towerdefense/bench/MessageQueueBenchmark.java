@@ -0,0 +1,140 @@
+package towerdefense.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for pushing and popping messages.
+ * The uncontended case pushes and pops on one thread. The grouped cases have
+ * one, or three, producer threads pushing to the game panel while a single
+ * consumer drains it in batches, the same way the control panel and the game
+ * loop share the queue. When the producers outrun the consumer the queue
+ * fills up and the pushes that get turned away are still counted, so compare
+ * the drain rate as well as the push rate.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Djava.awt.headless=true",
+    "-Dtowerdefense.messageCapacity=65536"})
+public class MessageQueueBenchmark {
+    @Param({"1", "256"})
+    public int batchSize;
+
+    private Object queue;
+    private Object message;
+    private Object batch;
+
+    /**
+     * Creates the message that gets pushed and the batch to drain into.
+     *
+     * @throws Throwable If the queue could not be reached.
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        queue = (Object) GameHandles.GET_QUEUE.invokeExact();
+        message = (Object) GameHandles.NEW_MESSAGE.invokeExact(
+            GameHandles.GAME_PANEL, GameHandles.DEAL_DAMAGE,
+            (Object) Integer.valueOf(1));
+        batch = (Object) GameHandles.NEW_MESSAGE_ARRAY.invokeExact(batchSize);
+        GameHandles.drainMessages();
+    }
+
+    /**
+     * Empties the queue so the next trial starts from nothing.
+     *
+     * @throws Throwable If the queue could not be reached.
+     */
+    @TearDown
+    public void tearDown() throws Throwable {
+        GameHandles.drainMessages();
+    }
+
+    /**
+     * Pushes a message and pops it straight back off on one thread.
+     *
+     * @return The popped message.
+     * @throws Throwable If the queue could not be reached.
+     */
+    @Benchmark
+    @Group("uncontended")
+    @GroupThreads(1)
+    public Object pushPop() throws Throwable {
+        boolean queued = (boolean) GameHandles.QUEUE_OFFER.invokeExact(queue,
+            message);
+        return (Object) GameHandles.QUEUE_POP.invokeExact(queue,
+            GameHandles.GAME_PANEL);
+    }
+
+    /**
+     * Pushes a message from the only producer.
+     *
+     * @return Whether the message was queued.
+     * @throws Throwable If the queue could not be reached.
+     */
+    @Benchmark
+    @Group("oneProducer")
+    @GroupThreads(1)
+    public boolean oneProducerPush() throws Throwable {
+        return (boolean) GameHandles.QUEUE_OFFER.invokeExact(queue, message);
+    }
+
+    /**
+     * Drains a batch of messages pushed by the only producer.
+     *
+     * @return How many messages were drained.
+     * @throws Throwable If the queue could not be reached.
+     */
+    @Benchmark
+    @Group("oneProducer")
+    @GroupThreads(1)
+    public int oneProducerDrain() throws Throwable {
+        return (int) GameHandles.QUEUE_DRAIN_TO.invokeExact(queue,
+            GameHandles.GAME_PANEL, batch);
+    }
+
+    /**
+     * Pushes a message from one of three competing producers.
+     *
+     * @return Whether the message was queued.
+     * @throws Throwable If the queue could not be reached.
+     */
+    @Benchmark
+    @Group("threeProducers")
+    @GroupThreads(3)
+    public boolean threeProducersPush() throws Throwable {
+        return (boolean) GameHandles.QUEUE_OFFER.invokeExact(queue, message);
+    }
+
+    /**
+     * Drains a batch of messages pushed by the three producers.
+     *
+     * @return How many messages were drained.
+     * @throws Throwable If the queue could not be reached.
+     */
+    @Benchmark
+    @Group("threeProducers")
+    @GroupThreads(1)
+    public int threeProducersDrain() throws Throwable {
+        return (int) GameHandles.QUEUE_DRAIN_TO.invokeExact(queue,
+            GameHandles.GAME_PANEL, batch);
+    }
+}
@@ -0,0 +1,68 @@
+package towerdefense.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for one tick of monster movement along the path.
+ * Monsters that reach the end of the path are replaced straight away so the
+ * population stays the same from tick to tick.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MonsterUpdateBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int monsterCount;
+
+    private Object store;
+    private Object template;
+
+    /**
+     * Fills the first level with monsters.
+     *
+     * @throws Throwable If the level could not be set up.
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        template = (Object) GameHandles.NEW_MONSTER.invokeExact(1);
+        store = LevelFixture.fill(LevelFixture.loadLevel(), template,
+            monsterCount);
+    }
+
+    /**
+     * Moves every monster one tick along the path.
+     *
+     * @return How many monsters had to be replaced.
+     * @throws Throwable If the store could not be reached.
+     */
+    @Benchmark
+    public int update() throws Throwable {
+        GameHandles.STORE_UPDATE.invokeExact(store, LevelFixture.TICK);
+        int removed = (int) GameHandles.STORE_REMOVE_DEAD.invokeExact(store);
+        for (int i = 0; i < removed; i++) {
+            int handle = (int) GameHandles.STORE_SPAWN.invokeExact(store,
+                template);
+        }
+        if (removed > 0) {
+            GameHandles.drainMessages();
+        }
+        return removed;
+    }
+}
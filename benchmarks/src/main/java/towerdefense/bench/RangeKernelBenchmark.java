@@ -0,0 +1,88 @@
+package towerdefense.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for the ways of finding a tower's target: the grid, and brute
+ * force with the scalar and vector range kernels.
+ * The monsters are spread along the path of the first level and a row of
+ * towers with the basic tower's range looks for targets across it. The
+ * vector kernel is only there when the benchmarks are built with the vector
+ * profile; otherwise asking for it falls back to the scalar kernel. Forks are
+ * started with the jdk.incubator.vector module, so this benchmark needs Java
+ * 16 or later.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Djava.awt.headless=true",
+    "--add-modules=jdk.incubator.vector"})
+public class RangeKernelBenchmark {
+    private static final int TOWER_COUNT = 32;
+    private static final double TOWER_RANGE = 60.0;
+
+    @Param({"256", "1024", "4096"})
+    public int monsterCount;
+
+    @Param({"grid", "scalar", "vector"})
+    public String targeting;
+
+    private Object grid;
+    private double[] towerX;
+    private double[] towerY;
+
+    /**
+     * Fills the first level with monsters and builds the grid.
+     *
+     * @throws Throwable If the level could not be set up.
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Object template = (Object) GameHandles.NEW_MONSTER.invokeExact(1);
+        Object store = LevelFixture.fill(LevelFixture.loadLevel(), template,
+            monsterCount);
+        Object kernel = (Object) GameHandles.CREATE_KERNEL.invokeExact(
+            (Object) targeting);
+        grid = (Object) GameHandles.NEW_GRID_WITH_KERNEL.invokeExact(600,
+            600, 50, kernel);
+        GameHandles.GRID_REBUILD.invokeExact(grid, store);
+
+        towerX = new double[TOWER_COUNT];
+        towerY = new double[TOWER_COUNT];
+        for (int i = 0; i < TOWER_COUNT; i++) {
+            towerX[i] = 20 + i * 560.0 / TOWER_COUNT;
+            towerY[i] = 20 + (i % 8) * 70.0;
+        }
+    }
+
+    /**
+     * Looks up the target of every tower.
+     *
+     * @param blackhole Sink for the targets found.
+     * @throws Throwable If the grid could not be reached.
+     */
+    @Benchmark
+    public void findTargets(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < TOWER_COUNT; i++) {
+            blackhole.consume((int) GameHandles.GRID_FIND_FIRST.invokeExact(
+                grid, towerX[i], towerY[i], TOWER_RANGE));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package towerdefense.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for picking the pre-rendered frame a monster is drawn with.
+ * This is the lookup that replaced slicing and rotating the sprite image on
+ * every draw.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SpriteSheetBenchmark {
+    private static final int ROTATIONS = 1024;
+
+    @Param({"monster.png", "tank.png"})
+    public String sheetFile;
+
+    @Param({"1", "1000"})
+    public int monsterCount;
+
+    private Object sheet;
+    private double[] rotations;
+    private int[] cells;
+
+    /**
+     * Loads the sprite sheet and picks random rotations and frames.
+     *
+     * @throws Throwable If the sheet could not be loaded.
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        sheet = (Object) GameHandles.GET_SHEET.invokeExact(
+            (Object) sheetFile, 2, 1);
+        Random random = new Random(42);
+        rotations = new double[ROTATIONS];
+        cells = new int[ROTATIONS];
+        for (int i = 0; i < ROTATIONS; i++) {
+            rotations[i] = random.nextDouble() * 2 * Math.PI;
+            cells[i] = random.nextInt(2);
+        }
+    }
+
+    /**
+     * Looks up the frame for every monster.
+     *
+     * @param blackhole Sink for the frames.
+     * @throws Throwable If the sheet could not be reached.
+     */
+    @Benchmark
+    public void getFrame(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < monsterCount; i++) {
+            int r = i & (ROTATIONS - 1);
+            int bucket = (int) GameHandles.SHEET_GET_BUCKET.invokeExact(sheet,
+                rotations[r]);
+            blackhole.consume((Object) GameHandles.SHEET_GET_FRAME.invokeExact(
+                sheet, cells[r], bucket));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package towerdefense.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for towers finding their targets.
+ * Towers are laid out evenly over the level and the monsters are spread along
+ * the path. The towers are updated with a long enough time step that every
+ * one of them is ready to fire, so every update does a full target search.
+ * The towers are also run through a parallel tower phase, split into small
+ * chunks so that even the smaller tower counts get spread over the cores.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TowerTargetBenchmark {
+    private static final double RELOADED = 5.0;
+    private static final int PARALLEL_CHUNK_SIZE = 4;
+
+    @Param({"100", "1000", "10000"})
+    public int monsterCount;
+
+    @Param({"8", "32", "256"})
+    public int towerCount;
+
+    private Object store;
+    private Object grid;
+    private Object[] towers;
+    private Object towerBag;
+    private Object parallelPhase;
+    private double[] towerCenterX;
+    private double[] towerCenterY;
+    private double[] towerRange;
+
+    /**
+     * Fills the first level with monsters and towers.
+     *
+     * @throws Throwable If the level could not be set up.
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Object template = (Object) GameHandles.NEW_MONSTER.invokeExact(1);
+        store = LevelFixture.fill(LevelFixture.loadLevel(), template,
+            monsterCount);
+        grid = (Object) GameHandles.NEW_GRID.invokeExact(600, 600, 50);
+        GameHandles.GRID_REBUILD.invokeExact(grid, store);
+
+        towerBag = (Object) GameHandles.NEW_ENTITY_BAG.invokeExact();
+        parallelPhase = (Object) GameHandles.NEW_TOWER_PHASE.invokeExact(
+            true, PARALLEL_CHUNK_SIZE);
+        towers = new Object[towerCount];
+        towerCenterX = new double[towerCount];
+        towerCenterY = new double[towerCount];
+        towerRange = new double[towerCount];
+        int perRow = (int) Math.ceil(Math.sqrt(towerCount));
+        for (int i = 0; i < towerCount; i++) {
+            int x = 20 + (i % perRow) * 560 / perRow;
+            int y = 20 + (i / perRow) * 560 / perRow;
+            Object tower;
+            if (i % 3 == 0) {
+                tower = (Object) GameHandles.NEW_BASIC_TOWER.invokeExact(x, y);
+            } else if (i % 3 == 1) {
+                tower = (Object) GameHandles.NEW_FAST_TOWER.invokeExact(x, y);
+            } else {
+                tower = (Object) GameHandles.NEW_MEGA_TOWER.invokeExact(x, y);
+            }
+            Object mask = (Object) GameHandles.TOWER_GET_MASK.invokeExact(
+                tower);
+            towers[i] = tower;
+            GameHandles.BAG_ADD.invokeExact(towerBag, tower);
+            towerCenterX[i] = (int) GameHandles.TOWER_GET_X.invokeExact(tower)
+                + (int) GameHandles.MASK_GET_WIDTH.invokeExact(mask) / 2;
+            towerCenterY[i] = (int) GameHandles.TOWER_GET_Y.invokeExact(tower)
+                + (int) GameHandles.MASK_GET_HEIGHT.invokeExact(mask) / 2;
+            towerRange[i] = (int) GameHandles.TOWER_GET_RANGE.invokeExact(
+                tower);
+        }
+    }
+
+    /**
+     * Rebuilds the grid of monster centers, as is done once per tick before
+     * the towers look for targets.
+     *
+     * @throws Throwable If the grid could not be reached.
+     */
+    @Benchmark
+    public void rebuildGrid() throws Throwable {
+        GameHandles.GRID_REBUILD.invokeExact(grid, store);
+    }
+
+    /**
+     * Looks up the target of every tower in the grid.
+     *
+     * @param blackhole Sink for the targets found.
+     * @throws Throwable If the grid could not be reached.
+     */
+    @Benchmark
+    public void findTargets(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < towerCount; i++) {
+            blackhole.consume((int) GameHandles.GRID_FIND_FIRST.invokeExact(
+                grid, towerCenterX[i], towerCenterY[i], towerRange[i]));
+        }
+    }
+
+    /**
+     * Rebuilds the grid and updates every tower, which is the whole of the
+     * towers' share of a tick.
+     *
+     * @throws Throwable If the towers could not be reached.
+     */
+    @Benchmark
+    public void updateTowers() throws Throwable {
+        GameHandles.GRID_REBUILD.invokeExact(grid, store);
+        for (int i = 0; i < towerCount; i++) {
+            GameHandles.TOWER_UPDATE.invokeExact(towers[i], RELOADED, store,
+                grid);
+        }
+    }
+
+    /**
+     * Rebuilds the grid and aims the towers in parallel, then applies their
+     * damage in tower order.
+     *
+     * @throws Throwable If the towers could not be reached.
+     */
+    @Benchmark
+    public void updateTowersParallel() throws Throwable {
+        GameHandles.GRID_REBUILD.invokeExact(grid, store);
+        GameHandles.TOWER_PHASE_UPDATE.invokeExact(parallelPhase, RELOADED,
+            towerBag, store, grid);
+    }
+}
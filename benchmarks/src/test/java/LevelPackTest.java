@@ -0,0 +1,121 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that a level pack built from the game's levels reads back, and that
+ * a truncated or corrupt pack is turned away with an IOException rather than
+ * crashing whoever opens it.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class LevelPackTest {
+    private File packFile;
+    private File brokenFile;
+
+    /**
+     * Builds a pack of the game's levels with the images stored as PNGs.
+     *
+     * @throws IOException If the pack could not be built.
+     */
+    @Before
+    public void setUp() throws IOException {
+        packFile = File.createTempFile("towerdefense", ".pack");
+        brokenFile = File.createTempFile("towerdefense", ".pack");
+        new LevelPackBuilder(new LevelCatalog(new File("levels.cfg")), true)
+            .write(packFile);
+    }
+
+    /**
+     * Deletes the packs.
+     */
+    @After
+    public void tearDown() {
+        packFile.delete();
+        brokenFile.delete();
+    }
+
+    /**
+     * Tests that a whole pack reads back every level.
+     *
+     * @throws IOException If the pack could not be read.
+     */
+    @Test
+    public void testWholePackLoads() throws IOException {
+        LevelPack pack = new LevelPack(packFile);
+        LevelCatalog catalog = new LevelCatalog(new File("levels.cfg"));
+        assertEquals(catalog.getLevelCount(), pack.getLevelCount());
+        assertNotNull(pack.readPathNodes(1));
+        assertNotNull(pack.getImage(pack.getPathImageName(1)));
+    }
+
+    /**
+     * Tests that a pack cut short anywhere is turned away.
+     *
+     * @throws IOException If a test pack could not be written.
+     */
+    @Test
+    public void testTruncatedPackIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(packFile.toPath());
+		// Every length through the tables, then a spread through the data
+        for (int length = 0; length < bytes.length;
+            length += length < 1024 ? 1 : 997) {
+            Files.write(brokenFile.toPath(), Arrays.copyOf(bytes, length));
+            assertRejected("cut to " + length + " bytes");
+        }
+    }
+
+    /**
+     * Tests that a pack whose counts or offsets point outside of it is
+     * turned away.
+     *
+     * @throws IOException If a test pack could not be written.
+     */
+    @Test
+    public void testCorruptTablesAreRejected() throws IOException {
+		// Level count, image count, then the first level's background id,
+		// path node offset and path node count
+        int[] fields = {8, 12, 20, 28, 32};
+        int[] values = {Integer.MAX_VALUE, Integer.MIN_VALUE, 1 << 20, -5};
+        for (int field : fields) {
+            for (int value : values) {
+                Files.copy(packFile.toPath(), brokenFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+                try (RandomAccessFile file
+                    = new RandomAccessFile(brokenFile, "rw")) {
+                    file.seek(field);
+                    file.writeInt(value);
+                }
+                assertRejected(value + " written at byte " + field);
+            }
+        }
+    }
+
+    /**
+     * Checks that the broken pack cannot be opened.
+     *
+     * @param description What was broken about it.
+     */
+    private void assertRejected(String description) {
+        try {
+            new LevelPack(brokenFile);
+            fail("Opened a pack " + description);
+        } catch (IOException e) {
+            return;
+        } catch (RuntimeException e) {
+            throw new AssertionError("Crashed on a pack " + description, e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests that the lock-free rings hand every item over exactly once and in
+ * order for each producer, both from one thread and with several producers
+ * racing a consumer.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class MessageRingTest {
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 200000;
+
+    /**
+     * Tests that a ring turns offers away once full and takes them again
+     * once drained.
+     */
+    @Test
+    public void testFullRingRejectsOffers() {
+        MessageRing ring = new MessageRing(5);
+        assertEquals(8, ring.getCapacity());
+        for (int i = 0; i < ring.getCapacity(); i++) {
+            assertTrue(ring.offer(message(i)));
+        }
+        assertFalse(ring.offer(message(-1)));
+        assertEquals(1, ring.getOverflowCount());
+
+        for (int i = 0; i < ring.getCapacity(); i++) {
+            assertEquals(Integer.valueOf(i), ring.poll().getMessageData());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.offer(message(8)));
+        assertEquals(1, ring.clear());
+        assertEquals(0, ring.size());
+    }
+
+    /**
+     * Tests that messages from racing producers all arrive, each producer's
+     * in the order it sent them.
+     *
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testMessagesFromManyProducers()
+        throws InterruptedException {
+        final MessageRing ring = new MessageRing(64);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            producers[p] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < PER_PRODUCER; i++) {
+                        Message<Integer> message = message(
+                            producer * PER_PRODUCER + i);
+                        while (!ring.offer(message)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            producers[p].start();
+        }
+
+        int[] next = new int[PRODUCERS];
+        Message<?>[] batch = new Message<?>[16];
+        int received = 0;
+        while (received < PRODUCERS * PER_PRODUCER) {
+            int count = ring.drainTo(batch);
+            for (int i = 0; i < count; i++) {
+                int value = (Integer) batch[i].getMessageData();
+                int producer = value / PER_PRODUCER;
+                assertEquals(next[producer]++, value % PER_PRODUCER);
+            }
+            received += count;
+            if (count == 0) {
+                Thread.yield();
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertNull(ring.poll());
+    }
+
+    /**
+     * Tests that events from racing producers all arrive, each producer's in
+     * the order it sent them, with their types and numbers kept together.
+     *
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testEventsFromManyProducers() throws InterruptedException {
+        final EventRing ring = new EventRing(64);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            producers[p] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < PER_PRODUCER; i++) {
+                        while (!ring.offer(producer, i)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            producers[p].start();
+        }
+
+        long[] next = new long[PRODUCERS];
+        int[] types = new int[16];
+        long[] values = new long[16];
+        int received = 0;
+        while (received < PRODUCERS * PER_PRODUCER) {
+            int count = ring.drainTo(types, values);
+            for (int i = 0; i < count; i++) {
+                assertEquals(next[types[i]]++, values[i]);
+            }
+            received += count;
+            if (count == 0) {
+                Thread.yield();
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(0, ring.drainTo(types, values));
+    }
+
+    /**
+     * Makes a message carrying a number.
+     *
+     * @param value The number.
+     * @return The message.
+     */
+    private static Message<Integer> message(int value) {
+        return new Message<Integer>(MessageRecipient.GAME_PANEL,
+            MessageType.CHANGE_LEVEL, value);
+    }
+}
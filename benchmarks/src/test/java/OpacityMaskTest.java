@@ -0,0 +1,232 @@
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Tests that the tower placement checks done on OpacityMasks agree with the
+ * per-pixel checks they replaced, on the game's own images and on random
+ * ones whose widths do not line up with the 64 pixel words of a mask.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class OpacityMaskTest {
+    private static final int PLACEMENTS = 5000;
+    private static final String[] TOWER_IMAGES = {
+        "basicTower.png", "fastTower.png", "megaTower.png"
+    };
+    private static final String[] PATH_IMAGES = {"path1.png", "path2.png"};
+
+    /**
+     * Tests tower on path checks against the per-pixel check on both levels.
+     *
+     * @throws IOException If an image could not be read.
+     */
+    @Test
+    public void testTowerPathMatchesPerPixel() throws IOException {
+        Random random = new Random(1);
+        for (String pathName : PATH_IMAGES) {
+            BufferedImage path = ImageIO.read(new File(pathName));
+            for (String towerName : TOWER_IMAGES) {
+                BufferedImage tower = ImageIO.read(new File(towerName));
+                for (int i = 0; i < PLACEMENTS; i++) {
+                    Point position = new Point(
+                        random.nextInt(path.getWidth() + 100) - 50,
+                        random.nextInt(path.getHeight() + 100) - 50);
+                    assertEquals(towerName + " at " + position + " on "
+                        + pathName,
+                        perPixelTowerPath(tower, position, path),
+                        ImageHelper.checkTowerPathIntersection(tower,
+                        position, path));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests tower on tower checks against the per-pixel check for every pair
+     * of tower images.
+     *
+     * @throws IOException If an image could not be read.
+     */
+    @Test
+    public void testTowerTowerMatchesPerPixel() throws IOException {
+        Random random = new Random(2);
+        for (String nameA : TOWER_IMAGES) {
+            BufferedImage towerA = ImageIO.read(new File(nameA));
+            for (String nameB : TOWER_IMAGES) {
+                BufferedImage towerB = ImageIO.read(new File(nameB));
+                for (int i = 0; i < PLACEMENTS; i++) {
+                    Point positionA = new Point(random.nextInt(200),
+                        random.nextInt(200));
+                    Point positionB = new Point(
+                        positionA.x + random.nextInt(120) - 60,
+                        positionA.y + random.nextInt(120) - 60);
+                    assertEquals(nameA + " at " + positionA + " and " + nameB
+                        + " at " + positionB,
+                        perPixelTowerTower(towerA, positionA, towerB,
+                        positionB),
+                        ImageHelper.checkTowerTowerIntersection(towerA,
+                        positionA, towerB, positionB));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests both checks against the per-pixel checks on random sparse
+     * images of awkward sizes.
+     */
+    @Test
+    public void testRandomImagesMatchPerPixel() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            BufferedImage imageA = randomImage(random);
+            BufferedImage imageB = randomImage(random);
+            for (int i = 0; i < 200; i++) {
+                Point positionA = new Point(random.nextInt(300) - 100,
+                    random.nextInt(300) - 100);
+                Point positionB = new Point(random.nextInt(300) - 100,
+                    random.nextInt(300) - 100);
+                assertEquals(perPixelTowerTower(imageA, positionA, imageB,
+                    positionB), ImageHelper.checkTowerTowerIntersection(
+                    imageA, positionA, imageB, positionB));
+                assertEquals(perPixelTowerPath(imageA, positionA, imageB),
+                    ImageHelper.checkTowerPathIntersection(imageA, positionA,
+                    imageB));
+            }
+        }
+    }
+
+    /**
+     * Makes an image of a random size with a few random opaque pixels.
+     *
+     * @param random Where to get the random numbers from.
+     * @return The image.
+     */
+    private static BufferedImage randomImage(Random random) {
+        int width = 1 + random.nextInt(200);
+        int height = 1 + random.nextInt(200);
+        BufferedImage image = new BufferedImage(width, height,
+            BufferedImage.TYPE_INT_ARGB);
+        int opaque = random.nextInt(width * height / 20 + 2);
+        for (int i = 0; i < opaque; i++) {
+            image.setRGB(random.nextInt(width), random.nextInt(height),
+                0xFF000000 | random.nextInt(0x1000000));
+        }
+        return image;
+    }
+
+    /**
+     * The tower on path check as it was before OpacityMask, reading both
+     * images a pixel at a time.
+     *
+     * @param towerImage The tower image.
+     * @param towerPosition The position of the tower.
+     * @param pathImage The path image.
+     * @return True if the tower intersects the path.
+     */
+    private static boolean perPixelTowerPath(BufferedImage towerImage,
+        Point towerPosition, BufferedImage pathImage) {
+        double towerWidth = towerPosition.getX() + towerImage.getWidth() - 1;
+        double towerHeight = towerPosition.getY() + towerImage.getHeight() - 1;
+        double pathWidth = pathImage.getWidth() - 1;
+        double pathHeight = pathImage.getHeight() - 1;
+
+        int xStart = (int) Math.max(towerPosition.getX(), 0);
+        int yStart = (int) Math.max(towerPosition.getY(), 0);
+        int xEnd = (int) Math.min(towerWidth, pathWidth);
+        int yEnd = (int) Math.min(towerHeight, pathHeight);
+
+        int xTraverse = Math.abs(xEnd - xStart);
+        int yTraverse = Math.abs(yEnd - yStart);
+
+        for (int y = 1; y < yTraverse - 1; y++) {
+            int ny = Math.abs(yStart - (int) towerPosition.getY()) + y;
+            int ny1 = yStart + y;
+
+            for (int x = 1; x < xTraverse - 1; x++) {
+                int nx = Math.abs(xStart - (int) towerPosition.getX()) + x;
+                int nx1 = xStart + x;
+                if (isOpaque(towerImage, nx, ny)
+                    && isOpaque(pathImage, nx1, ny1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The tower on tower check as it was before OpacityMask, reading both
+     * images a pixel at a time.
+     *
+     * @param towerImageA The first tower image.
+     * @param towerPositionA The position of the first tower.
+     * @param towerImageB The second tower image.
+     * @param towerPositionB The position of the second tower.
+     * @return True if the towers intersect.
+     */
+    private static boolean perPixelTowerTower(BufferedImage towerImageA,
+        Point towerPositionA, BufferedImage towerImageB,
+        Point towerPositionB) {
+        double towerWidthA = towerPositionA.getX() + towerImageA.getWidth() - 1;
+        double towerHeightA = towerPositionA.getY()
+            + towerImageA.getHeight() - 1;
+        double towerWidthB = towerPositionB.getX() + towerImageB.getWidth() - 1;
+        double towerHeightB = towerPositionB.getY()
+            + towerImageB.getHeight() - 1;
+
+        int xStart = (int) Math.max(towerPositionA.getX(),
+            towerPositionB.getX());
+        int yStart = (int) Math.max(towerPositionA.getY(),
+            towerPositionB.getY());
+        int xEnd = (int) Math.min(towerWidthA, towerWidthB);
+        int yEnd = (int) Math.min(towerHeightA, towerHeightB);
+
+        int xTraverse = Math.abs(xEnd - xStart);
+        int yTraverse = Math.abs(yEnd - yStart);
+
+        for (int y = 1; y < yTraverse - 1; y++) {
+            int ny = Math.abs(yStart - (int) towerPositionA.getY()) + y;
+            int ny1 = Math.abs(yStart - (int) towerPositionB.getY()) + y;
+
+            for (int x = 1; x < xTraverse - 1; x++) {
+                int nx = Math.abs(xStart - (int) towerPositionA.getX()) + x;
+                int nx1 = Math.abs(xStart - (int) towerPositionB.getX()) + x;
+                if (isOpaque(towerImageA, nx, ny)
+                    && isOpaque(towerImageB, nx1, ny1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a pixel is opaque the way the old checks did, where a
+     * pixel outside the image never counts.
+     *
+     * @param image The image.
+     * @param x The x position of the pixel.
+     * @param y The y position of the pixel.
+     * @return True if the pixel is inside the image and opaque.
+     */
+    private static boolean isOpaque(BufferedImage image, int x, int y) {
+        if (x < 0 || y < 0 || x >= image.getWidth()
+            || y >= image.getHeight()) {
+			// The old checks caught the exception getRGB throws here and
+			// moved on to the next pixel
+            return false;
+        }
+        return (image.getRGB(x, y) & 0xFF000000) != 0x00;
+    }
+}
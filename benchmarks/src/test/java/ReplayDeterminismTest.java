@@ -0,0 +1,202 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that a recorded game played back through a new simulation ends in the
+ * same state it was recorded in. The scripted game places towers, spawns
+ * waves and clicks around the map, so the check covers the message rings,
+ * the event channel, monster movement along the path table and tower
+ * targeting all at once. The recording stops partway through a wave, so
+ * the state compared includes every live monster's handle, position and
+ * health and every tower's kills and cooldown, not just the totals.
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class ReplayDeterminismTest {
+    private static final int TICK_RATE = 60;
+    private static final int WAVES = 3;
+    private static final int STOP_TICK = 2400;
+
+    // Where the scripted game tries to put its towers
+    private static final int[][] TOWER_SPOTS = {
+        {450, 240}, {350, 240}, {300, 150}, {150, 150},
+        {60, 200}, {200, 60}, {450, 330}, {350, 60}
+    };
+
+    private File replayFile;
+
+    /**
+     * Makes a file to record the replay to.
+     *
+     * @throws IOException If the file could not be made.
+     */
+    @Before
+    public void setUp() throws IOException {
+        replayFile = File.createTempFile("towerdefense", ".replay");
+        drain(MessageRecipient.GAME_PANEL);
+        drain(MessageRecipient.CONTROL_PANEL);
+    }
+
+    /**
+     * Deletes the replay file.
+     */
+    @After
+    public void tearDown() {
+        replayFile.delete();
+    }
+
+    /**
+     * Tests that playing a replay back ends in the recorded state.
+     *
+     * @throws IOException If the replay could not be written or read.
+     */
+    @Test
+    public void testPlaybackMatchesRecording() throws IOException {
+        GameSimulation recorded = new GameSimulation();
+        ReplayRecorder recorder = new ReplayRecorder(replayFile, TICK_RATE);
+        recorded.setRecorder(recorder);
+        playScriptedGame(recorded);
+        recorder.close(recorded.getTickCount());
+
+        GameSimulation played = new GameSimulation();
+        new ReplayPlayer(replayFile).play(played);
+
+		// Make sure the recording stopped somewhere worth comparing
+        assertTrue(recorded.getMonsters().size() > 0);
+        assertTrue(recorded.getScore() > 0);
+        assertSameState(recorded, played);
+    }
+
+    /**
+     * Tests that playing the same replay twice ends in the same state both
+     * times.
+     *
+     * @throws IOException If the replay could not be written or read.
+     */
+    @Test
+    public void testPlaybackIsRepeatable() throws IOException {
+        GameSimulation recorded = new GameSimulation();
+        ReplayRecorder recorder = new ReplayRecorder(replayFile, TICK_RATE);
+        recorded.setRecorder(recorder);
+        playScriptedGame(recorded);
+        recorder.close(recorded.getTickCount());
+
+        ReplayPlayer player = new ReplayPlayer(replayFile);
+        GameSimulation first = new GameSimulation();
+        player.play(first);
+        GameSimulation second = new GameSimulation();
+        player.play(second);
+
+        assertSameState(first, second);
+    }
+
+    /**
+     * Checks that two simulations are in the same state, down to each
+     * monster and tower.
+     *
+     * @param expected The simulation in the state expected.
+     * @param actual The simulation to check.
+     */
+    private static void assertSameState(GameSimulation expected,
+        GameSimulation actual) {
+        assertEquals(expected.getTickCount(), actual.getTickCount());
+        assertEquals(expected.getCurrentWave(), actual.getCurrentWave());
+        assertEquals(expected.getMonstersToKill(), actual.getMonstersToKill());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getHealth(), actual.getHealth());
+        assertEquals(expected.getMoney(), actual.getMoney());
+
+        MonsterStore expectedMonsters = expected.getMonsters();
+        MonsterStore actualMonsters = actual.getMonsters();
+        assertEquals(expectedMonsters.size(), actualMonsters.size());
+        for (int i = 0; i < expectedMonsters.size(); i++) {
+            String monster = "monster in slot " + i;
+            assertEquals(monster, expectedMonsters.getHandle(i),
+                actualMonsters.getHandle(i));
+            assertEquals(monster, expectedMonsters.getX(i),
+                actualMonsters.getX(i), 0.0);
+            assertEquals(monster, expectedMonsters.getY(i),
+                actualMonsters.getY(i), 0.0);
+            assertEquals(monster, expectedMonsters.getHealth(i),
+                actualMonsters.getHealth(i), 0.0);
+        }
+
+        EntityBag<Tower> expectedTowers = expected.getTowers();
+        EntityBag<Tower> actualTowers = actual.getTowers();
+        assertEquals(expectedTowers.size(), actualTowers.size());
+        for (int i = 0; i < expectedTowers.size(); i++) {
+            Tower expectedTower = expectedTowers.get(i);
+            Tower actualTower = actualTowers.get(i);
+            String tower = "tower " + i;
+            assertEquals(tower, expectedTower.getX(), actualTower.getX());
+            assertEquals(tower, expectedTower.getY(), actualTower.getY());
+            assertEquals(tower, expectedTower.getKills(),
+                actualTower.getKills());
+            assertEquals(tower, expectedTower.getTimeSinceLastAttack(),
+                actualTower.getTimeSinceLastAttack(), 0.0);
+        }
+    }
+
+    /**
+     * Plays a few waves of the first level, buying towers before each wave
+     * and clicking around the map while the monsters walk, and stops partway
+     * through the last wave.
+     *
+     * @param simulation The simulation to play.
+     */
+    private void playScriptedGame(GameSimulation simulation) {
+        MessageQueue queue = MessageQueue.getInstance();
+        queue.push(new Message<Integer>(MessageRecipient.GAME_PANEL,
+            MessageType.CHANGE_LEVEL, 1));
+        simulation.processMessages();
+
+        long ticks = 0;
+        for (int wave = 0; wave < WAVES && !simulation.isDead()
+            && ticks < STOP_TICK; wave++) {
+            for (int i = 0; i < TOWER_SPOTS.length; i++) {
+                MessageType type = i % 2 == 0 ? MessageType.SPAWN_BASIC_TOWER
+                    : MessageType.SPAWN_FAST_TOWER;
+                queue.push(new Message<Point>(MessageRecipient.GAME_PANEL,
+                    type, new Point(TOWER_SPOTS[i][0], TOWER_SPOTS[i][1])));
+            }
+            queue.push(new Message<String>(MessageRecipient.GAME_PANEL,
+                MessageType.SPAWN_WAVE, "Spawn Wave"));
+            do {
+                if (ticks % 97 == 0) {
+                    queue.push(new Message<String>(
+                        MessageRecipient.GAME_PANEL,
+                        MessageType.PLACE_BASIC_TOWER, "Place Tower"));
+                    queue.push(new Message<Point>(
+                        MessageRecipient.GAME_PANEL, MessageType.GAME_CLICKED,
+                        new Point((int) (ticks * 7 % 500),
+                        (int) (ticks * 13 % 400))));
+                }
+                simulation.update(1.0 / TICK_RATE);
+                ticks++;
+                drain(MessageRecipient.CONTROL_PANEL);
+            } while (simulation.getMonstersToKill() > 0
+                && !simulation.isDead() && ticks < STOP_TICK);
+        }
+    }
+
+    /**
+     * Throws away every message and event waiting for a recipient.
+     *
+     * @param recipient The recipient.
+     */
+    private static void drain(MessageRecipient recipient) {
+        while (MessageQueue.getInstance().pop(recipient) != null) {
+            continue;
+        }
+        EventChannel.getInstance().clear(recipient);
+    }
+}
@@ -0,0 +1,80 @@
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Class to check monster centers against a range with SIMD instructions.
+ * Uses the incubating Vector API to work out the squared distance of as many
+ * monster centers at once as the CPU's widest vectors hold, which is 8 floats
+ * with AVX2 and 16 with AVX-512. Since usually only a few monsters are in
+ * range, whole vectors of misses are skipped with a single test, and the
+ * monsters that are in range are picked out of the lane mask bit by bit.
+ * <p>
+ * This class needs Java 16 or later and the jdk.incubator.vector module, so
+ * it lives apart from the rest of the game and is only loaded if asked for.
+ * Compile and run it with:
+ * <pre>
+ * javac --add-modules jdk.incubator.vector -d . \
+ *     vector/VectorRangeKernel.java
+ * java --add-modules jdk.incubator.vector \
+ *     -Dtowerdefense.targeting=vector TowerDefenseGame
+ * </pre>
+ *
+ * @author Zachary Peterson
+ * @version 1.0
+ */
+public class VectorRangeKernel implements RangeKernel {
+    private static final VectorSpecies<Float> SPECIES
+        = FloatVector.SPECIES_PREFERRED;
+
+    /**
+     * Finds every monster center within a squared distance of a point.
+     *
+     * @param centerX The x coordinates of the monster centers.
+     * @param centerY The y coordinates of the monster centers.
+     * @param count How many monster centers there are.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @param rangeSquared The squared distance to check within.
+     * @param candidates Array to write the indices of the monsters found
+     * into.
+     * @return How many monsters were found.
+     */
+    @Override
+    public int findCandidates(float[] centerX, float[] centerY, int count,
+        float x, float y, float rangeSquared, int[] candidates) {
+        FloatVector pointX = FloatVector.broadcast(SPECIES, x);
+        FloatVector pointY = FloatVector.broadcast(SPECIES, y);
+        FloatVector range = FloatVector.broadcast(SPECIES, rangeSquared);
+
+        int found = 0;
+        int i = 0;
+        int bound = SPECIES.loopBound(count);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector dx = FloatVector.fromArray(SPECIES, centerX, i)
+                .sub(pointX);
+            FloatVector dy = FloatVector.fromArray(SPECIES, centerY, i)
+                .sub(pointY);
+            VectorMask<Float> inRange = dx.mul(dx).add(dy.mul(dy))
+                .compare(VectorOperators.LE, range);
+            if (inRange.anyTrue()) {
+                long lanes = inRange.toLong();
+                while (lanes != 0) {
+                    candidates[found++] = i + Long.numberOfTrailingZeros(lanes);
+                    lanes &= lanes - 1;
+                }
+            }
+        }
+
+		// Finish off whatever does not fill a whole vector one at a time
+        for (; i < count; i++) {
+            float dx = centerX[i] - x;
+            float dy = centerY[i] - y;
+            if (dx * dx + dy * dy <= rangeSquared) {
+                candidates[found++] = i;
+            }
+        }
+        return found;
+    }
+}